@@ -0,0 +1,29 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Runs the JMH benchmarks. Unless other options are given, the results are also written as JSON to
+ * jmh-result.json so they can be compared between versions.
+ * Any JMH option can be given, e.g. a regular expression to run only some benchmarks.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws Exception {
+		ArrayList<String> options = new ArrayList<String>(Arrays.asList(args));
+		if(!options.contains("-rf")) {
+			options.add("-rf");
+			options.add("json");
+		}
+		if(!options.contains("-rff")) {
+			options.add("-rff");
+			options.add("jmh-result.json");
+		}
+		org.openjdk.jmh.Main.main(options.toArray(new String[options.size()]));
+	}
+
+}
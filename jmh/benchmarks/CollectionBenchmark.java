@@ -0,0 +1,105 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import useful_classes.Deque;
+import useful_classes.IntDeque;
+import useful_classes.SLLQueue;
+import useful_classes.Set2;
+
+/**
+ * Benchmark of the collections of useful_classes. Every invocation fills a collection with
+ * {@code size} elements and empties it, so the results are the cost of {@code size} operations of each kind.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionBenchmark {
+
+	@Param({"1000", "10000"})
+	public int size;
+
+	private Integer[] values;
+
+	@Setup
+	public void setUp() {
+		values = new Integer[size];
+		for(int i=0; i<size; i++)
+			values[i] = i;
+	}
+
+	@Benchmark
+	public void sllQueueEnqueueDequeue(Blackhole bh) {
+		SLLQueue<Integer> queue = new SLLQueue<Integer>();
+		for(int i=0; i<size; i++)
+			queue.enqueue(values[i]);
+		while(!queue.isEmpty())
+			bh.consume(queue.dequeue());
+	}
+
+	@Benchmark
+	public void dequeEnqueueDequeue(Blackhole bh) {
+		Deque<Integer> deque = new Deque<Integer>();
+		for(int i=0; i<size; i++)
+			deque.enqueue(values[i]);
+		while(!deque.isEmpty())
+			bh.consume(deque.dequeue());
+	}
+
+	@Benchmark
+	public void dequeEnqueueRemoveLast(Blackhole bh) {
+		Deque<Integer> deque = new Deque<Integer>();
+		for(int i=0; i<size; i++)
+			deque.enqueue(values[i]);
+		while(!deque.isEmpty())
+			bh.consume(deque.removeLast());
+	}
+
+	@Benchmark
+	public void intDequeEnqueueDequeue(Blackhole bh) {
+		IntDeque deque = new IntDeque();
+		for(int i=0; i<size; i++)
+			deque.enqueue(i);
+		while(!deque.isEmpty())
+			bh.consume(deque.dequeueInt());
+	}
+
+	@Benchmark
+	public void set2Add(Blackhole bh) {
+		Set2<Integer> set = new Set2<Integer>();
+		for(int i=0; i<size; i++)
+			set.add(values[i]);
+		bh.consume(set.size());
+	}
+
+	@Benchmark
+	public void set2AddContainsRemove(Blackhole bh) {
+		Set2<Integer> set = new Set2<Integer>();
+		for(int i=0; i<size; i++)
+			set.add(values[i]);
+		for(int i=0; i<size; i++)
+			bh.consume(set.contains(values[i]));
+		for(int i=0; i<size; i++)
+			set.remove(values[i]);
+		bh.consume(set.size());
+	}
+}
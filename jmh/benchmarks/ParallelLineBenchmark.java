@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dataManagement.Trace;
+import dataManagement.WorkloadCursor;
+import policies.ParallelLineEngine;
+import policies.WaitingPolicy;
+
+/**
+ * Benchmark of {@link ParallelLineEngine} against {@link WaitingPolicy#process()} for the policies whose
+ * lines are independent, with tens of thousands of servers. With 1 partition the parallel engine runs in
+ * the calling thread, so the difference with the sequential one is the cost of the partitioning itself.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelLineBenchmark {
+
+	@Param({"MLMS", "MLMSBWT"})
+	public String policy;
+
+	@Param({"10000", "50000"})
+	public int servers;
+
+	@Param({"0", "1", "2", "4", "8"})
+	public int partitions;//0 for the sequential engine
+
+	private Trace trace;
+	private ForkJoinPool pool;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		trace = WorkloadCursor.generate(2000000, servers, 0.9, 42);
+		pool = new ForkJoinPool(Math.max(1, partitions));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public String process() {
+		if(partitions == 0)
+			return WaitingPolicy.create(policy, servers, trace).process();
+		return new ParallelLineEngine(policy, servers, trace, pool, partitions).run();
+	}
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dataManagement.Trace;
+import dataManagement.WorkloadCursor;
+import policies.WaitingPolicy;
+
+/**
+ * Benchmark of {@link WaitingPolicy#process()} for every policy over {@link WorkloadCursor} traces of
+ * different sizes, server counts and loads. The trace is generated once per trial and shared by
+ * every invocation, as {@link dataManagement.DataReader} does.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolicyBenchmark {
+
+	@Param({"SLMS", "MLMS", "MLMSBLL", "MLMSBWT"})
+	public String policy;
+
+	@Param({"10000", "1000000"})
+	public int clients;
+
+	@Param({"1", "5", "50"})
+	public int servers;
+
+	@Param({"0.5", "0.9", "1.1"})
+	public double load;
+
+	private Trace trace;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		trace = WorkloadCursor.generate(clients, servers, load, 42);
+	}
+
+	@Benchmark
+	public String process() {
+		return WaitingPolicy.create(policy, servers, trace).process();
+	}
+}
@@ -0,0 +1,111 @@
+package dataManagement;
+
+import java.util.SplittableRandom;
+
+/**
+ * Arrival process of the synthetic traces: a Poisson process whose rate (clients per time unit) may
+ * change with time. The next arrival is found by thinning: candidates are generated at the maximum rate
+ * and each one is kept with probability {@code rate(time) / maxRate()}.
+ *
+ * The process has no state besides the time given, so the same process can be shared by the
+ * generators of several files running at the same time.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public abstract class ArrivalProcess {
+
+	/**
+	 * @param time exact time.
+	 * @return arrival rate at the given time.
+	 */
+	public abstract double rate(double time);
+
+	/**
+	 * @return maximum arrival rate at any time.
+	 */
+	public abstract double maxRate();
+
+	/**
+	 * @param time exact time of the last arrival.
+	 * @param rnd source of random numbers.
+	 * @return exact time of the next arrival.
+	 */
+	public double next(double time, SplittableRandom rnd) {
+		double max = maxRate();
+		do {
+			time += -Math.log(1 - rnd.nextDouble()) / max;
+		} while(rate(time) < max && rnd.nextDouble() * max >= rate(time));
+		return time;
+	}
+
+	/**
+	 * @param rate clients per time unit.
+	 * @return homogeneous Poisson process.
+	 */
+	public static ArrivalProcess poisson(double rate) {
+		if(rate <= 0)
+			throw new IllegalArgumentException("Rate must be positive.");
+		return new ArrivalProcess() {
+			public double rate(double time) {
+				return rate;
+			}
+
+			public double maxRate() {
+				return rate;
+			}
+		};
+	}
+
+	/**
+	 * Non homogeneous Poisson process following a daily curve of hourly rates, which repeats every day.
+	 * @param hourlyRates clients per time unit in each hour of the day, e.g. 24 rates.
+	 * @param hourLength time units in an hour.
+	 * @return Poisson process with a piecewise constant rate.
+	 */
+	public static ArrivalProcess hourly(double[] hourlyRates, double hourLength) {
+		double[] rates = hourlyRates.clone();
+		double max = 0;
+		for(double rate : rates) {
+			if(rate < 0)
+				throw new IllegalArgumentException("Rates must not be negative.");
+			max = Math.max(max, rate);
+		}
+		if(max == 0 || hourLength <= 0)
+			throw new IllegalArgumentException("Some rate and the hour length must be positive.");
+		double maxRate = max;
+		return new ArrivalProcess() {
+			public double rate(double time) {
+				return rates[(int) ((time / hourLength) % rates.length)];
+			}
+
+			public double maxRate() {
+				return maxRate;
+			}
+		};
+	}
+
+	/**
+	 * Poisson process with periodic bursts: at the beginning of every period the rate goes up to the
+	 * burst rate for the length of the burst.
+	 * @param rate clients per time unit out of the bursts.
+	 * @param burstRate clients per time unit during the bursts.
+	 * @param period time units from the beginning of a burst to the beginning of the next.
+	 * @param burstLength time units of each burst.
+	 * @return Poisson process with bursts.
+	 */
+	public static ArrivalProcess bursts(double rate, double burstRate, double period, double burstLength) {
+		if(rate < 0 || burstRate <= 0 || period <= 0 || burstLength < 0 || burstLength > period)
+			throw new IllegalArgumentException("Rates and lengths of the bursts are not valid.");
+		double maxRate = Math.max(rate, burstRate);
+		return new ArrivalProcess() {
+			public double rate(double time) {
+				return (time % period < burstLength) ? burstRate : rate;
+			}
+
+			public double maxRate() {
+				return maxRate;
+			}
+		};
+	}
+}
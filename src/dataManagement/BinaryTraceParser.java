@@ -0,0 +1,226 @@
+package dataManagement;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Parser of the binary trace files written by {@link BinaryTraceWriter}.
+ *
+ * A binary trace starts with a header of 13 bytes: the magic bytes "BWPT", the version of the format,
+ * the number of clients and the CRC32 of the rest of the file, both as big endian ints. After the header
+ * every client is stored as two varints: the difference between its arrival time and the arrival time of
+ * the previous client (zigzag encoded, so unsorted files are also valid) and its service time.
+ *
+ * The file is read through memory mapped buffers, and the checksum is verified as they are consumed.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class BinaryTraceParser implements TraceCursor {
+
+	static final byte[] MAGIC = {'B', 'W', 'P', 'T'};
+	static final byte VERSION = 1;
+	static final int HEADER = 13;//magic, version, number of clients and checksum
+	private static final long WINDOW = 1L << 28;//bytes mapped at a time
+
+	private FileChannel channel;
+	private long fileSize;
+	private long windowStart;//position in the file of the current window
+	private MappedByteBuffer window;
+	private int index;//position inside the current window
+	private CRC32 crc;//of the windows already consumed
+	private int numClients;
+	private int checksum;
+	private int read;//clients read so far
+	private boolean badFormat;
+	private int arrivalTime;
+	private int serviceTime;
+
+	/**
+	 * Constructor method. Reads the header of the file.
+	 * @param file binary trace to be parsed.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public BinaryTraceParser(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		fileSize = channel.size();
+		crc = new CRC32();
+		arrivalTime = 0;
+		read = 0;
+		if(fileSize < HEADER) {
+			badFormat = true;
+			return;
+		}
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+		for(int i=0; i<MAGIC.length; i++) {
+			if(header.get() != MAGIC[i])
+				badFormat = true;
+		}
+		if(header.get() != VERSION)
+			badFormat = true;
+		numClients = header.getInt();
+		checksum = header.getInt();
+		if(numClients < 0 || numClients > (fileSize - HEADER) / 2)//every client takes at least 2 bytes
+			badFormat = true;
+		windowStart = HEADER;
+		index = 0;
+		window = map(HEADER);
+	}
+
+	private MappedByteBuffer map(long start) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, fileSize - start));
+	}
+
+	/**
+	 * @return next byte of the file, -1 at the end of the file.
+	 */
+	private int read() throws IOException {
+		if(index == window.limit()) {
+			if(windowStart + index == fileSize)
+				return -1;
+			crc.update(window.rewind());
+			windowStart += index;
+			window = map(windowStart);
+			index = 0;
+		}
+		return window.get(index++) & 0xFF;
+	}
+
+	/**
+	 * @return the next varint of the file, -1 if the file ends or the varint is longer than 5 bytes.
+	 */
+	private long readVarint() throws IOException {
+		long value = 0;
+		for(int shift=0; shift<35; shift+=7) {
+			int b = read();
+			if(b == -1)
+				return -1;
+			value |= (long) (b & 0x7F) << shift;
+			if((b & 0x80) == 0)
+				return value;
+		}
+		return -1;
+	}
+
+	/**
+	 * Boolean method to determine if a file is a binary trace.
+	 * @param file to be checked.
+	 * @return True if the file starts with the magic bytes of a binary trace, false otherwise.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static boolean isBinary(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			byte[] start = new byte[MAGIC.length];
+			int length = in.readNBytes(start, 0, start.length);
+			if(length < MAGIC.length)
+				return false;
+			for(int i=0; i<MAGIC.length; i++) {
+				if(start[i] != MAGIC[i])
+					return false;
+			}
+			return true;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads the next client of the file. After the last client the end of the file and the checksum are verified.
+	 * @return True if a client was read, false at the end of the file or when the file does not meet the format.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public boolean next() throws IOException {
+		if(badFormat)
+			return false;
+		if(read == numClients) {
+			if(read() != -1)
+				return fail();//bytes after the last client
+			crc.update(window.rewind());
+			if((int) crc.getValue() != checksum)
+				return fail();
+			return false;
+		}
+
+		long delta = readVarint();
+		long service = readVarint();
+		if(delta == -1 || service == -1)
+			return fail();
+		long arrival = arrivalTime + ((delta >>> 1) ^ -(delta & 1));//zigzag decoding
+		if(arrival < 0 || arrival > Integer.MAX_VALUE || service < 1 || service > Integer.MAX_VALUE)
+			return fail();
+
+		arrivalTime = (int) arrival;
+		serviceTime = (int) service;
+		read++;
+		return true;
+	}
+
+	private boolean fail() {
+		badFormat = true;
+		return false;
+	}
+
+	/**
+	 * @return True if the file does not meet the format of a binary trace or its checksum does not match.
+	 */
+	public boolean hasBadFormat() {
+		return badFormat;
+	}
+
+	/**
+	 * @return number of clients written in the header.
+	 */
+	public int getNumClients() {
+		return numClients;
+	}
+
+	public int getArrivalTime() {
+		return arrivalTime;
+	}
+
+	public int getServiceTime() {
+		return serviceTime;
+	}
+
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Parses a whole binary trace into a {@link Trace}. The id of each client is its position in the file.
+	 * @param file binary trace to be parsed.
+	 * @return {@link Trace} with the clients of the file, null if the file does not meet the format.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static Trace readTrace(File file) throws IOException {
+		BinaryTraceParser parser = new BinaryTraceParser(file);
+		try {
+			if(parser.hasBadFormat())
+				return null;
+			int size = parser.getNumClients();
+			int[] arrival = new int[size];
+			int[] service = new int[size];
+			int read = 0;
+			while(parser.next()) {
+				arrival[read] = parser.getArrivalTime();
+				service[read] = parser.getServiceTime();
+				read++;
+			}
+			if(parser.hasBadFormat())
+				return null;
+			int[] id = new int[size];
+			for(int i=0; i<size; i++)
+				id[i] = i;//this is used so that MLMSBLL can do the transfers easier
+			return new Trace(arrival, service, id, size);
+		} finally {
+			parser.close();
+		}
+	}
+}
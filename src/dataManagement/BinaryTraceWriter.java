@@ -0,0 +1,114 @@
+package dataManagement;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.zip.CRC32;
+
+/**
+ * Writer of binary trace files, whose format is described in {@link BinaryTraceParser}.
+ *
+ * Clients are written one at a time, so a trace never needs to be in memory to be converted.
+ * The number of clients and the checksum are written in the header when the writer is closed.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class BinaryTraceWriter implements TraceWriter {
+
+	private RandomAccessFile out;
+	private byte[] buffer;
+	private int length;//bytes in the buffer
+	private CRC32 crc;
+	private int numClients;
+	private int lastArrival;
+
+	/**
+	 * Constructor method. The file is created or truncated.
+	 * @param file binary trace to be written.
+	 * @throws IOException if the file cannot be created.
+	 */
+	public BinaryTraceWriter(File file) throws IOException {
+		out = new RandomAccessFile(file, "rw");
+		out.setLength(0);
+		out.write(new byte[BinaryTraceParser.HEADER]);//filled when the writer is closed
+		buffer = new byte[1 << 16];
+		length = 0;
+		crc = new CRC32();
+		numClients = 0;
+		lastArrival = 0;
+	}
+
+	private void flush() throws IOException {
+		crc.update(buffer, 0, length);
+		out.write(buffer, 0, length);
+		length = 0;
+	}
+
+	private void writeVarint(long value) {
+		while(value >= 0x80) {
+			buffer[length++] = (byte) (value | 0x80);
+			value >>>= 7;
+		}
+		buffer[length++] = (byte) value;
+	}
+
+	/**
+	 * Writes the next client of the trace.
+	 * @param arrivalTime arrival time of the client, not negative.
+	 * @param serviceTime service time of the client, at least 1.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void write(int arrivalTime, int serviceTime) throws IOException {
+		if(arrivalTime < 0 || serviceTime < 1)
+			throw new IllegalArgumentException("Arrival time must not be negative and service time must be at least 1.");
+		if(numClients == Integer.MAX_VALUE)
+			throw new IllegalStateException("A binary trace cannot have more clients.");
+		if(buffer.length - length < 10)
+			flush();
+		long delta = (long) arrivalTime - lastArrival;
+		writeVarint((delta << 1) ^ (delta >> 63));//zigzag encoding, small for sorted arrivals
+		writeVarint(serviceTime);
+		lastArrival = arrivalTime;
+		numClients++;
+	}
+
+	/**
+	 * @return number of clients written so far.
+	 */
+	public int getNumClients() {
+		return numClients;
+	}
+
+	/**
+	 * Writes the rest of the clients and the header, and closes the file.
+	 */
+	public void close() throws IOException {
+		try {
+			flush();
+			out.seek(0);
+			out.write(BinaryTraceParser.MAGIC);
+			out.write(BinaryTraceParser.VERSION);
+			out.writeInt(numClients);
+			out.writeInt((int) crc.getValue());
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes a whole {@link Trace} as a binary trace.
+	 * @param trace {@link Trace} to be written.
+	 * @param file binary trace to be written.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void writeTrace(Trace trace, File file) throws IOException {
+		BinaryTraceWriter writer = new BinaryTraceWriter(file);
+		try {
+			for(int i=0; i<trace.size(); i++)
+				writer.write(trace.getArrivalTime(i), trace.getServiceTime(i));
+		} finally {
+			writer.close();
+		}
+	}
+}
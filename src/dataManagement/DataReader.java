@@ -7,16 +7,26 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+import policies.FusedSimulation;
 import policies.MLMS;
 import policies.MLMSBLL;
 import policies.MLMSBWT;
 import policies.SLMS;
+import policies.SegmentedSimulation;
+import policies.SimulationMetrics;
+import policies.UnsortedTraceException;
+import policies.WaitingPolicy;
 import useful_classes.Queue;
-import useful_classes.SLLQueue;
 
 /**
  * Data Reader class made for testing purposes.
@@ -26,9 +36,164 @@ import useful_classes.SLLQueue;
  */
 public class DataReader {
 
+	private static final List<String> NOT_FOUND = List.of("Input file not found.");
+	private static final List<String> BAD_FORMAT = List.of("Input file does not meet the expected format or it is empty.");
 
-	
-	public DataReader(){}
+	private int parallelism;//number of simulations that may run at the same time
+	private boolean streaming;//simulations read the clients while they run instead of reading the whole file first
+	private boolean percentiles;//percentiles are added to the results
+	private boolean segmented;//every simulation of a file is split in segments that run at the same time
+	private boolean fused;//in streaming mode the file is read once for every simulation
+	private boolean pipelined;//files are read, simulated and written at the same time
+	private boolean metrics;//the simulations are measured and their metrics written
+	private ResultCache cache;//null if the results are not cached
+
+	public DataReader(){
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor method.
+	 * @param parallelism number of simulations that may run at the same time.
+	 */
+	public DataReader(int parallelism){
+		if(parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be at least 1.");
+		this.parallelism = parallelism;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	/**
+	 * In streaming mode every simulation reads the clients from the file while it runs, so the
+	 * memory depends on the clients in the system and not on the length of the file.
+	 * Files whose clients are not sorted by arrival time are still read into memory.
+	 * @param streaming True to use the streaming mode.
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	public boolean hasPercentiles() {
+		return percentiles;
+	}
+
+	/**
+	 * When set, every result is followed by the p50/p90/p99/max of the waiting times, the lengths of the
+	 * lines and the sojourn times, as given by {@link policies.RunStatistics}.
+	 * @param percentiles True to add the percentiles to the results.
+	 */
+	public void setPercentiles(boolean percentiles) {
+		this.percentiles = percentiles;
+	}
+
+	public boolean isSegmented() {
+		return segmented;
+	}
+
+	/**
+	 * In segmented mode the policies of a file are processed one after another, but each of them splits the
+	 * trace where the system is empty and simulates the segments at the same time, see {@link SegmentedSimulation}.
+	 * It makes a single long file use every thread. Streaming files are not segmented.
+	 * @param segmented True to use the segmented mode.
+	 */
+	public void setSegmented(boolean segmented) {
+		this.segmented = segmented;
+	}
+
+	public boolean isFused() {
+		return fused;
+	}
+
+	/**
+	 * In fused mode the streaming simulations of a file are fed from a single reading of the file, see
+	 * {@link FusedSimulation}, instead of reading the file once for each of them. It only applies to the streaming mode.
+	 * @param fused True to use the fused mode.
+	 */
+	public void setFused(boolean fused) {
+		this.fused = fused;
+	}
+
+	public boolean isPipelined() {
+		return pipelined;
+	}
+
+	/**
+	 * In pipelined mode a reader thread reads the next files while the simulations of the previous ones run in
+	 * the pool, and a writer thread writes the outputFiles as their simulations finish, see {@link #pipelinedRead()}.
+	 * It applies to the files read into memory, so it is ignored in streaming or segmented mode, which read the
+	 * files one after another as usual.
+	 * @param pipelined True to use the pipelined mode.
+	 */
+	public void setPipelined(boolean pipelined) {
+		this.pipelined = pipelined;
+	}
+
+	public boolean hasMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * When set, every simulation fills a {@link SimulationMetrics} and they are written to outputFiles/data_i_METRICS.txt,
+	 * one line per policy in the order of the results. Segmented simulations are not measured.
+	 * @param metrics True to measure the simulations.
+	 */
+	public void setMetrics(boolean metrics) {
+		this.metrics = metrics;
+	}
+
+	public ResultCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * When a cache is set, the results of a file whose contents were already simulated are written from the
+	 * cache without simulating it, and the results of the rest of the files are added to the cache.
+	 * The cache is not used while the simulations are measured (see {@link #setMetrics(boolean)}), since a
+	 * cached result has no metrics to be written.
+	 * @param cache {@link ResultCache} of the results, null to simulate every file.
+	 */
+	public void setCache(ResultCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * @param data_i
+	 * @return hash of the contents of the file data_i, null if the cache is not used or the file is not found.
+	 * @throws IOException if the file cannot be read.
+	 */
+	private String hash(String data_i) throws IOException {
+		if(cache == null || metrics)
+			return null;
+		File inputFILE = locate(data_i);
+		if(inputFILE == null)
+			return null;
+		return ResultCache.hash(inputFILE);
+	}
+
+	/**
+	 * @return kind of results written, since the percentiles change them.
+	 */
+	private String variant() {
+		return (percentiles) ? "percentiles" : "plain";
+	}
+
+	/**
+	 * @param policy {@link WaitingPolicy} that was just processed.
+	 * @param result String returned by the policy.
+	 * @return the result, followed by the percentiles of the run if they are asked for.
+	 */
+	private String report(WaitingPolicy policy, String result) {
+		if(!percentiles || result == null)
+			return result;
+		return result + " " + policy.getEngine().getStatistics();
+	}
 
 	/**
 	 * Reads the file dataFiles.txt 
@@ -58,72 +223,459 @@ public class DataReader {
 	 * @throws FileNotFoundException and creates an outputFile with the exception in it.
 	 */
 	public Queue<Client> readFile(String data_i) throws NumberFormatException, IOException, FileNotFoundException{
+		Trace trace = readTrace(data_i);
+		if(trace == null)
+			return null;
+		return trace.toQueue();
+	}
 
-		try {
-			FileReader inputFILE = new FileReader("inputFiles/" + data_i + ".txt");
-			BufferedReader buffRead = new BufferedReader(inputFILE);
-			String line;
-			Pattern p = Pattern.compile("^([0-9]+)[\\s]([1-9])([0-9]*)$");
-			SLLQueue<Client> inputQueue = new SLLQueue<Client>();
-			int clientID = 0;//this is used so that MLMSBLL can do the transfers easier
-			while ((line = buffRead.readLine()) != null) {
-				Matcher m = p.matcher(line);
-				if(m.matches()) {
-					String[] numbers = line.split(" ");
-					Client client = new Client(new Integer(numbers[0]), new Integer(numbers[1]));
-					client.setId(clientID); 
-					clientID++;
-					inputQueue.enqueue(client);
-				}
-				else {
-					PrintWriter out = new PrintWriter("outputFiles/"+ data_i + "_OUT.txt");
-					out.println("Input file does not meet the expected format or it is empty.");
-					out.close();
-					return null;
-				}
+	/**
+	 * Reads files data_i.txt into a read only {@link Trace}. It may write an outputFile when format of file is not correct.
+	 * The file may also be a binary trace, named data_i.txt or data_i.bin, which is detected automatically.
+	 * @param data_i
+	 * @return {@link Trace} with the data from file inside, null if the file is not found or has a bad format.
+	 * @throws NumberFormatException
+	 * @throws IOException
+	 * @throws FileNotFoundException and creates an outputFile with the exception in it.
+	 */
+	public Trace readTrace(String data_i) throws NumberFormatException, IOException, FileNotFoundException{
+
+		File inputFILE = findFile(data_i);
+		if(inputFILE == null)
+			return null;
+		Trace trace = parse(inputFILE);
+		if(trace == null)
+			writeBadFormat(data_i);
+		return trace;
+	}
+
+	/**
+	 * @param inputFILE text or binary trace.
+	 * @return {@link Trace} with the clients of the file, null if the file does not meet the expected format.
+	 * @throws IOException
+	 */
+	private Trace parse(File inputFILE) throws IOException {
+		TraceParseEvent event = new TraceParseEvent();
+		event.begin();
+		boolean binary = BinaryTraceParser.isBinary(inputFILE);//binary traces are detected by their magic bytes
+		Trace trace;
+		if(binary)
+			trace = BinaryTraceParser.readTrace(inputFILE);
+		else
+			trace = TraceParser.readTrace(inputFILE);//the file is scanned through a memory map, without a String per line
+		event.end();
+		if(event.shouldCommit()) {
+			event.file = inputFILE.getPath();
+			event.bytes = inputFILE.length();
+			event.binary = binary;
+			event.clients = (trace == null) ? -1 : trace.size();
+			event.commit();
+		}
+		return trace;
+	}
+
+	/**
+	 * @param data_i
+	 * @return the file data_i.txt, or data_i.bin if there is none. Null if neither can be read.
+	 */
+	private File locate(String data_i) {
+		File inputFILE = new File("inputFiles/" + data_i + ".txt");
+		if(!inputFILE.isFile())
+			inputFILE = new File("inputFiles/" + data_i + ".bin");
+		if(!inputFILE.isFile() || !inputFILE.canRead())
+			return null;
+		return inputFILE;
+	}
+
+	/**
+	 * Finds the file data_i.txt, or data_i.bin if there is none. It creates an outputFile when the file is not found.
+	 * @param data_i
+	 * @return {@link File} to be read, null if it is not found.
+	 * @throws FileNotFoundException if the outputFile cannot be created.
+	 */
+	public File findFile(String data_i) throws FileNotFoundException {
+		File inputFILE = locate(data_i);
+		if(inputFILE == null)
+			write(data_i, NOT_FOUND);
+		return inputFILE;
+	}
+
+	private void writeBadFormat(String data_i) throws FileNotFoundException {
+		write(data_i, BAD_FORMAT);
+	}
+
+	/**
+	 * Writes the outputFile of a file.
+	 * @param data_i
+	 * @param lines {@link List} of the lines of the outputFile.
+	 * @throws FileNotFoundException if the outputFile cannot be created.
+	 */
+	private void write(String data_i, List<String> lines) throws FileNotFoundException {
+		PrintWriter out = new PrintWriter("outputFiles/"+ data_i + "_OUT.txt");
+		for(String line : lines)
+			out.println(line);
+		out.close();
+	}
+
+	/**
+	 * Writes the metrics of the policies of a file, when they are measured.
+	 * @param data_i
+	 * @param policies {@link ArrayList} of {@link WaitingPolicy} that were processed.
+	 * @throws FileNotFoundException if the file cannot be created.
+	 */
+	private void writeMetrics(String data_i, ArrayList<WaitingPolicy> policies) throws FileNotFoundException {
+		if(!metrics)
+			return;
+		PrintWriter out = new PrintWriter("outputFiles/"+ data_i + "_METRICS.txt");
+		for(WaitingPolicy policy : policies)
+			out.println(policy.getName() + " " + policy.getServerNum() + ": " + policy.getMetrics());
+		out.close();
+	}
+
+	/**
+	 * Creates every policy to be tested on a file: each policy with 1, 3 and 5 servers.
+	 * All of them share the same read only trace.
+	 * @param file {@link Trace} read from a file, null for policies that read the file while they are processed.
+	 * @return {@link ArrayList} of {@link WaitingPolicy} in the order the results are written.
+	 */
+	public ArrayList<WaitingPolicy> getPolicies(Trace file) {
+		ArrayList<WaitingPolicy> policies = new ArrayList<WaitingPolicy>();
+		for(int j=1; j<=5; j+=2)
+			policies.add(new SLMS(j, file));
+		for(int j=1; j<=5; j+=2)
+			policies.add(new MLMS(j, file));
+		for(int j=1; j<=5; j+=2)
+			policies.add(new MLMSBLL(j, file));
+		for(int j=1; j<=5; j+=2)
+			policies.add(new MLMSBWT(j, file));
+		if(metrics) {
+			for(WaitingPolicy policy : policies)
+				policy.setMetrics(new SimulationMetrics());
+		}
+		return policies;
+	}
+
+	/**
+	 * Processes the policies in the given pool.
+	 * @param policies {@link ArrayList} of {@link WaitingPolicy} to be processed.
+	 * @param pool {@link ForkJoinPool} that runs the simulations.
+	 * @return {@link ArrayList} with the results, in the same order of the policies.
+	 * @throws IOException if a simulation fails or the thread is interrupted while waiting for it.
+	 */
+	public ArrayList<String> process(ArrayList<WaitingPolicy> policies, ForkJoinPool pool) throws IOException {
+		ArrayList<Future<String>> futures = new ArrayList<Future<String>>();
+		for(WaitingPolicy policy : policies)
+			futures.add(pool.submit(() -> report(policy, policy.process())));
+		return collect(futures);
+	}
+
+	/**
+	 * Processes the policies one after another, each one split in segments that run in the given pool.
+	 * @param policies {@link ArrayList} of {@link WaitingPolicy} to be processed.
+	 * @param file {@link Trace} read from a file, shared by the policies.
+	 * @param pool {@link ForkJoinPool} that runs the segments.
+	 * @return {@link ArrayList} with the results, in the same order of the policies.
+	 * @throws IOException if the thread is interrupted while waiting for the segments.
+	 */
+	public ArrayList<String> processSegmented(ArrayList<WaitingPolicy> policies, Trace file, ForkJoinPool pool) throws IOException {
+		ArrayList<String> results = new ArrayList<String>();
+		for(WaitingPolicy policy : policies) {
+			SegmentedSimulation simulation = new SegmentedSimulation(policy.getName(), policy.getServerNum(), file);
+			try {
+				String result = simulation.process(pool, 4 * parallelism);//more segments than threads to balance them
+				results.add((percentiles) ? result + " " + simulation.getStatistics() : result);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for the simulations.", e);
 			}
-			buffRead.close();
-			return inputQueue;
-		}catch(FileNotFoundException e) {
-			PrintWriter out = new PrintWriter("outputFiles/"+ data_i + "_OUT.txt");
-			out.println("Input file not found.");
-			out.close();
 		}
-		return null;
+		return results;
+	}
+
+	/**
+	 * Processes the policies in the given pool, each one reading the clients from the file while it runs.
+	 * @param policies {@link ArrayList} of {@link WaitingPolicy} to be processed.
+	 * @param file data file with the clients sorted by arrival time.
+	 * @param pool {@link ForkJoinPool} that runs the simulations.
+	 * @return {@link ArrayList} with the results, in the same order of the policies. Null if the file does not meet the expected format.
+	 * @throws IOException if a simulation fails or the thread is interrupted while waiting for it.
+	 * @throws UnsortedTraceException if the clients are not sorted by arrival time.
+	 */
+	public ArrayList<String> processStream(ArrayList<WaitingPolicy> policies, File file, ForkJoinPool pool) throws IOException {
+		ArrayList<Future<String>> futures = new ArrayList<Future<String>>();
+		for(WaitingPolicy policy : policies) {
+			futures.add(pool.submit(() -> {
+				TraceCursor cursor = TraceCursor.open(file);
+				try {
+					return report(policy, policy.process(cursor));
+				} finally {
+					cursor.close();
+				}
+			}));
+		}
+		ArrayList<String> results = collect(futures);
+		if(results.contains(null))
+			return null;
+		return results;
+	}
+
+	/**
+	 * Processes the policies while the file is read only once, see {@link FusedSimulation}.
+	 * @param policies {@link ArrayList} of {@link WaitingPolicy} created without a trace, to be processed.
+	 * @param file data file with the clients sorted by arrival time.
+	 * @param pool {@link ForkJoinPool} that advances the simulations.
+	 * @return {@link ArrayList} with the results, in the same order of the policies. Null if the file does not meet the expected format.
+	 * @throws IOException if the file cannot be read.
+	 * @throws UnsortedTraceException if the clients are not sorted by arrival time.
+	 */
+	public ArrayList<String> processFused(ArrayList<WaitingPolicy> policies, File file, ForkJoinPool pool) throws IOException {
+		TraceCursor cursor = TraceCursor.open(file);
+		try {
+			ArrayList<String> results = new FusedSimulation(policies).process(cursor, pool);
+			if(results == null)
+				return null;
+			for(int i=0; i<results.size(); i++)
+				results.set(i, report(policies.get(i), results.get(i)));
+			return results;
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Waits for the results of the simulations.
+	 * @param futures {@link ArrayList} of {@link Future} of the simulations.
+	 * @return {@link ArrayList} with the results, in the same order of the futures.
+	 * @throws IOException if a simulation fails or the thread is interrupted while waiting for it.
+	 */
+	private ArrayList<String> collect(ArrayList<Future<String>> futures) throws IOException {
+		ArrayList<String> results = new ArrayList<String>();
+		try {
+			for(Future<String> future : futures)
+				results.add(future.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the simulations.", e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if(e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+		return results;
+	}
+
+	/**
+	 * Reads a file and processes every policy over it.
+	 * @param data_i
+	 * @param pool {@link ForkJoinPool} that runs the simulations.
+	 * @return {@link ArrayList} with the results, null if the file is not found or has a bad format.
+	 * @throws IOException
+	 */
+	private ArrayList<String> readAndProcess(String data_i, ForkJoinPool pool) throws IOException {
+		Trace file = readTrace(data_i);
+		if(file == null)
+			return null;
+		if(segmented)
+			return processSegmented(getPolicies(file), file, pool);
+		ArrayList<WaitingPolicy> policies = getPolicies(file);
+		ArrayList<String> results = process(policies, pool);
+		writeMetrics(data_i, policies);
+		return results;
+	}
+
+	/**
+	 * Processes every policy while it reads the file. Files whose clients are not sorted by arrival time
+	 * are read into memory and processed as usual.
+	 * @param data_i
+	 * @param pool {@link ForkJoinPool} that runs the simulations.
+	 * @return {@link ArrayList} with the results, null if the file is not found or has a bad format.
+	 * @throws IOException
+	 */
+	private ArrayList<String> readStream(String data_i, ForkJoinPool pool) throws IOException {
+		File file = findFile(data_i);
+		if(file == null)
+			return null;
+		ArrayList<String> results;
+		ArrayList<WaitingPolicy> policies = getPolicies(null);
+		try {
+			if(fused)
+				results = processFused(policies, file, pool);
+			else
+				results = processStream(policies, file, pool);
+		} catch (UnsortedTraceException e) {
+			return readAndProcess(data_i, pool);//unsorted clients cannot be simulated while they are read
+		}
+		if(results == null)
+			writeBadFormat(data_i);
+		else
+			writeMetrics(data_i, policies);
+		return results;
 	}
 
 	/**
 	 * Method used to run the simulation. It will write the outputFile corresponding to every correct file read.
+	 * The simulations of a file run in parallel, but their results are written in the usual order.
 	 * @throws IOException
 	 */
 	public void mainRead() throws IOException {
+		if(pipelined && !streaming && !segmented) {
+			pipelinedRead();
+			return;
+		}
 
 		ArrayList<String> s = readDataFiles();
-		for(int i=0; i<s.size(); i++) {
-			Queue<Client> file = readFile(s.get(i));
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			for(int i=0; i<s.size(); i++) {
+				String hash = hash(s.get(i));
+				ArrayList<String> results = (hash == null) ? null : cache.get(hash, getPolicies(null), variant());
+				if(results == null) {
+					results = (streaming) ? readStream(s.get(i), pool) : readAndProcess(s.get(i), pool);
+					if(results != null && hash != null)
+						cache.put(hash, getPolicies(null), variant(), results);
+				}
 
+				if(results != null)
+					write(s.get(i), results);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
 
-			if(file != null) {
-				PrintWriter out = new PrintWriter("outputFiles/"+ s.get(i) + "_OUT.txt");
-				for(int j=1; j<=5; j+=2) {
-					SLMS policy1 = new SLMS(j, file);
-					out.println(policy1.process());
-				}
-				for(int j=1; j<=5; j+=2) {
-					MLMS policy2 = new MLMS(j, file);
-					out.println(policy2.process());
-				}
-				for(int j=1; j<=5; j+=2) {
-					MLMSBLL policy3 = new MLMSBLL(j, file);
-					out.println(policy3.process());
+	/**
+	 * File on its way through the stages of {@link #pipelinedRead()}.
+	 */
+	private static class Job {
+		private String name;
+		private List<String> message;//written instead of the results when the file is not found, has a bad format or is cached
+		private ArrayList<WaitingPolicy> policies;
+		private ArrayList<Future<String>> results;
+		private Throwable error;//of the reader
+		private String hash;//of the file when its results are to be cached
+		private boolean last;//marks the end of the files
+
+		private Job(String name) {
+			this.name = name;
+		}
+	}
+
+	/**
+	 * Pipelined version of {@link #mainRead()}. A reader thread reads the files in order into memory, the current
+	 * thread submits the simulations of every file to the pool, and a writer thread waits for them and writes the
+	 * outputFiles in order. The stages are joined by bounded queues, so no more than {@code parallelism} files are
+	 * read ahead and no more than {@code parallelism} files wait to be written.
+	 * @throws IOException if a file cannot be read or an outputFile cannot be written.
+	 */
+	public void pipelinedRead() throws IOException {
+		ArrayList<String> s = readDataFiles();
+		BlockingQueue<Job> read = new ArrayBlockingQueue<Job>(parallelism);
+		BlockingQueue<Job> simulated = new ArrayBlockingQueue<Job>(parallelism);
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		ExecutorService stages = Executors.newFixedThreadPool(2);
+		try {
+			Future<?> reader = stages.submit(() -> {
+				try {
+					for(String data_i : s)
+						read.put(readJob(data_i));
+				} finally {
+					Job end = new Job(null);//always sent, so the next stages never wait for a file that will not come
+					end.last = true;
+					read.put(end);
 				}
-				for(int j=1; j<=5; j+=2) {
-					MLMSBWT policy4 = new MLMSBWT(j, file);
-					out.println(policy4.process());
+				return null;
+			});
+			Future<Throwable> writer = stages.submit(() -> {
+				Throwable error = null;//the first one, the rest of the files are still written
+				while(true) {
+					Job job = simulated.take();
+					if(job.last)
+						return error;
+					try {
+						writeJob(job);
+					} catch (Throwable e) {//the stage must go on taking the files, or the current thread would wait forever
+						if(error == null)
+							error = e;
+					}
 				}
+			});
 
-				out.close();
+			while(true) {
+				Job job = read.take();
+				if(job.policies != null) {
+					job.results = new ArrayList<Future<String>>();
+					for(WaitingPolicy policy : job.policies)
+						job.results.add(pool.submit(() -> report(policy, policy.process())));
+				}
+				simulated.put(job);
+				if(job.last)
+					break;
 			}
+			reader.get();
+			Throwable error = writer.get();
+			if(error instanceof IOException)
+				throw (IOException) error;
+			if(error instanceof RuntimeException)
+				throw (RuntimeException) error;
+			if(error instanceof Error)
+				throw (Error) error;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while processing the files.", e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IOException(e.getCause());
+		} finally {
+			stages.shutdownNow();
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Reader stage of {@link #pipelinedRead()}: reads a file into memory, unless its results are cached.
+	 * @param data_i
+	 * @return {@link Job} of the file. Any failure is kept in the job, to be thrown by the writer stage.
+	 */
+	private Job readJob(String data_i) {
+		Job job = new Job(data_i);
+		try {
+			job.hash = hash(data_i);
+			List<String> cached = (job.hash == null) ? null : cache.get(job.hash, getPolicies(null), variant());
+			File inputFILE = locate(data_i);
+			Trace trace = (inputFILE == null || cached != null) ? null : parse(inputFILE);
+			if(cached != null)
+				job.message = cached;
+			else if(inputFILE == null)
+				job.message = NOT_FOUND;
+			else if(trace == null)
+				job.message = BAD_FORMAT;
+			else
+				job.policies = getPolicies(trace);
+		} catch (IOException | RuntimeException e) {
+			job.error = e;
+		}
+		return job;
+	}
+
+	/**
+	 * Writer stage of {@link #pipelinedRead()}: waits for the simulations of a file and writes its outputFile.
+	 * @param job {@link Job} of the file.
+	 * @throws Throwable the failure of the reader or of a simulation, or an {@link IOException} if the outputFile cannot be written.
+	 */
+	private void writeJob(Job job) throws Throwable {
+		if(job.error != null)
+			throw job.error;
+		if(job.message != null)
+			write(job.name, job.message);
+		else {
+			ArrayList<String> results = collect(job.results);
+			write(job.name, results);
+			writeMetrics(job.name, job.policies);
+			if(job.hash != null)
+				cache.put(job.hash, job.policies, variant(), results);
 		}
 	}
 
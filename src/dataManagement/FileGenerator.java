@@ -2,10 +2,15 @@ package dataManagement;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import useful_classes.Set2;
 
@@ -95,7 +100,92 @@ public class FileGenerator {
 		
 		out.close();
 	}
+
+	/**
+	 * Writes dataFiles.txt with the name of every file generated by
+	 * {@link #genData_i(ArrivalProcess, ServiceDistribution, long, int, boolean)}, in order,
+	 * so the same seed always gives the same workload.
+	 * @throws FileNotFoundException
+	 */
+	public void genDataFiles() throws FileNotFoundException{
+		PrintWriter out = new PrintWriter(new File("inputFiles", "dataFiles.txt"));
+		for(int i=1; i<=numFiles; i++)
+			out.println("data_" + i);
+		out.close();
+	}
 	
+	/**
+	 * Generates a data file with a synthetic workload of Poisson arrivals and exponential service times
+	 * (see {@link WorkloadCursor}), instead of the few clients arriving in [0,20) of {@link #genData()}.
+	 * The clients are written while they are generated, so the file can be of any size.
+	 * @param fileName name of the file inside the inputFiles directory, without the ".txt" at the end.
+	 * @param size number of clients.
+	 * @param servers number of servers the load refers to.
+	 * @param load expected fraction of time the servers are busy.
+	 * @param seed of the random numbers, the same seed always gives the same file.
+	 * @throws IOException
+	 */
+	public void genWorkload(String fileName, long size, int servers, double load, long seed) throws IOException {
+		TraceWriter out = new TextTraceWriter(new File("inputFiles", fileName + ".txt"));
+		try {
+			new WorkloadCursor(size, servers, load, seed).writeTo(out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Generates the data_i.txt files (or data_i.bin binary traces), each one with maxSize clients whose arrival
+	 * and service times follow the given distributions. Every file is written while it is generated, so
+	 * files of several GB never are in memory, and the files are generated in parallel.
+	 *
+	 * Every file has its own {@link SplittableRandom}, split from the seed in the order of the files before
+	 * any file is generated, so the files are the same for a given seed whatever the number of threads.
+	 * @param arrivals {@link ArrivalProcess} of the clients.
+	 * @param services {@link ServiceDistribution} of the service times.
+	 * @param seed of the random numbers.
+	 * @param parallelism number of files that may be generated at the same time.
+	 * @param binary True to write binary traces, false to write text files.
+	 * @throws IOException if a file cannot be written.
+	 */
+	public void genData_i(ArrivalProcess arrivals, ServiceDistribution services, long seed, int parallelism, boolean binary) throws IOException {
+		SplittableRandom root = new SplittableRandom(seed);
+		SplittableRandom[] rnds = new SplittableRandom[numFiles];
+		for(int i=0; i<numFiles; i++)
+			rnds[i] = root.split();
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			ArrayList<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for(int i=0; i<numFiles; i++) {
+				File file = new File("inputFiles", "data_" + (i+1) + (binary ? ".bin" : ".txt"));
+				WorkloadCursor cursor = new WorkloadCursor(maxSize, arrivals, services, rnds[i]);
+				futures.add(pool.submit(() -> {
+					TraceWriter out = TraceWriter.open(file, binary);
+					try {
+						cursor.writeTo(out);
+					} finally {
+						out.close();
+					}
+					return null;
+				}));
+			}
+			for(Future<Void> future : futures)
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while generating the files.", e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IOException(e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
 	/**
 	 * Method used as the main File Generator method. Used for testing purposes.
 	 * @param n amount of file names to be generated by {@link genDataFiles()} method.
@@ -0,0 +1,182 @@
+package dataManagement;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import policies.EventEngine;
+import policies.WaitingPolicy;
+
+/**
+ * Cache in a local directory of the results of the simulations, so files that did not change are not simulated again.
+ *
+ * Every result is kept in a small file named by the SHA-256 of the contents of the data file, the policy, the number
+ * of servers and {@link EventEngine#VERSION}, so a result is found whatever the name of the data file and is not found
+ * once the engine may give a different one. The total size of the entries is bounded: when it is exceeded, the
+ * entries used least recently are deleted. The last use of an entry is kept as the modification time of its file, so
+ * the order is remembered from one run to the next.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class ResultCache {
+
+	private static final String SUFFIX = ".result";
+
+	private File directory;
+	private long maxBytes;
+	private long bytes;//size of the entries
+	private LinkedHashMap<String, Long> entries;//name and size of every entry, from the least to the most recently used
+
+	/**
+	 * Constructor method. Creates the directory if needed and reads its entries.
+	 * @param directory where the entries are kept.
+	 * @param maxBytes maximum total size of the entries.
+	 * @throws IOException if the directory cannot be created.
+	 */
+	public ResultCache(File directory, long maxBytes) throws IOException {
+		if(maxBytes < 0)
+			throw new IllegalArgumentException("The size of the cache cannot be negative.");
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		this.entries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+		Files.createDirectories(directory.toPath());
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for(File file : files) {
+			entries.put(file.getName(), file.length());
+			bytes += file.length();
+		}
+		evict();
+	}
+
+	/**
+	 * @param file data file.
+	 * @return SHA-256 of the contents of the file, in hexadecimal.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static String hash(File file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available.", e);
+		}
+		byte[] buffer = new byte[1 << 16];
+		try(InputStream in = new FileInputStream(file)) {
+			int read;
+			while((read = in.read(buffer)) != -1)
+				digest.update(buffer, 0, read);
+		}
+		StringBuilder hex = new StringBuilder();
+		for(byte b : digest.digest())
+			hex.append(String.format("%02x", b));
+		return hex.toString();
+	}
+
+	/**
+	 * @param hash of the data file, see {@link #hash(File)}.
+	 * @param policy {@link WaitingPolicy} simulated.
+	 * @param variant kind of result, e.g. with or without percentiles.
+	 * @return name of the entry.
+	 */
+	private static String name(String hash, WaitingPolicy policy, String variant) {
+		return hash + "-" + policy.getName() + "-" + policy.getServerNum() + "-v" + EventEngine.VERSION + "-" + variant + SUFFIX;
+	}
+
+	/**
+	 * Looks for the results of every policy over a data file.
+	 * @param hash of the data file, see {@link #hash(File)}.
+	 * @param policies {@link ArrayList} of {@link WaitingPolicy} to be simulated.
+	 * @param variant kind of result, e.g. with or without percentiles.
+	 * @return {@link ArrayList} with the results, in the same order of the policies. Null if any of them is not cached.
+	 */
+	public synchronized ArrayList<String> get(String hash, ArrayList<WaitingPolicy> policies, String variant) {
+		ArrayList<String> results = new ArrayList<String>();
+		for(WaitingPolicy policy : policies) {
+			String name = name(hash, policy, variant);
+			if(!entries.containsKey(name))
+				return null;
+			try {
+				results.add(new String(Files.readAllBytes(new File(directory, name).toPath()), StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				remove(name);//deleted or damaged by someone else, it is simulated again
+				return null;
+			}
+		}
+		long now = System.currentTimeMillis();
+		for(WaitingPolicy policy : policies) {
+			String name = name(hash, policy, variant);
+			entries.get(name);//most recently used
+			new File(directory, name).setLastModified(now);
+		}
+		return results;
+	}
+
+	/**
+	 * Keeps the results of every policy over a data file, deleting the entries used least recently if they do not fit.
+	 * @param hash of the data file, see {@link #hash(File)}.
+	 * @param policies {@link ArrayList} of {@link WaitingPolicy} simulated.
+	 * @param variant kind of result, e.g. with or without percentiles.
+	 * @param results {@link ArrayList} with the results, in the same order of the policies.
+	 * @throws IOException if an entry cannot be written.
+	 */
+	public synchronized void put(String hash, ArrayList<WaitingPolicy> policies, String variant, ArrayList<String> results) throws IOException {
+		for(int i=0; i<policies.size(); i++) {
+			String name = name(hash, policies.get(i), variant);
+			byte[] data = results.get(i).getBytes(StandardCharsets.UTF_8);
+			File temp = File.createTempFile("entry", ".tmp", directory);//never read as an entry, even if it is left behind
+			Files.write(temp.toPath(), data);
+			Files.move(temp.toPath(), new File(directory, name).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			Long old = entries.put(name, (long) data.length);
+			bytes += data.length - ((old == null) ? 0 : old);
+		}
+		evict();
+	}
+
+	private void remove(String name) {
+		Long size = entries.remove(name);
+		if(size != null)
+			bytes -= size;
+		new File(directory, name).delete();
+	}
+
+	/**
+	 * Deletes the entries used least recently until the rest fit in the maximum size.
+	 */
+	private void evict() {
+		Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+		while(bytes > maxBytes && it.hasNext()) {
+			Map.Entry<String, Long> entry = it.next();
+			bytes -= entry.getValue();
+			new File(directory, entry.getKey()).delete();
+			it.remove();
+		}
+	}
+
+	/**
+	 * @return number of results kept.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return total size of the results kept, in bytes.
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+}
@@ -0,0 +1,172 @@
+package dataManagement;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+
+import policies.SimulationMetrics;
+import policies.WaitingPolicy;
+
+/**
+ * Scalability test of the policies over synthetic workloads of increasing size.
+ *
+ * Every policy is run over {@link WorkloadCursor} workloads of 10^3, 10^4, ... clients and 1, 10, 100, ...
+ * servers. The clients are generated while the simulation runs, so the memory measured is the one of the
+ * simulation itself. For every run the report has the wall time, the events per second (every client arrives
+ * and departs), the peak heap and the allocation rate of the thread that runs the simulation.
+ * When a run takes longer than the time limit, the bigger workloads of the same policy and servers are skipped.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class ScalabilityHarness {
+
+	private double load;
+	private long seed;
+	private long timeLimit;//milliseconds
+	private ArrayList<MemoryPoolMXBean> heapPools;
+
+	/**
+	 * Constructor method.
+	 * @param load expected fraction of time the servers are busy in every workload.
+	 * @param seed of the random numbers of the workloads.
+	 * @param timeLimit milliseconds after which the bigger workloads of a configuration are skipped.
+	 */
+	public ScalabilityHarness(double load, long seed, long timeLimit) {
+		this.load = load;
+		this.seed = seed;
+		this.timeLimit = timeLimit;
+		this.heapPools = new ArrayList<MemoryPoolMXBean>();
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if(pool.getType() == MemoryType.HEAP)
+				heapPools.add(pool);
+		}
+	}
+
+	/**
+	 * Runs a policy over a workload and measures it.
+	 * @param policy name of the policy, one of {@link WaitingPolicy#NAMES}.
+	 * @param servers number of server posts.
+	 * @param clients number of clients of the workload.
+	 * @return {@link Measurement} of the run.
+	 * @throws IOException never, the workload is not read from a file.
+	 */
+	public Measurement measure(String policy, int servers, long clients) throws IOException {
+		System.gc();
+		for(MemoryPoolMXBean pool : heapPools)
+			pool.resetPeakUsage();
+		long allocated = SimulationMetrics.allocatedBytes();
+		long start = System.nanoTime();
+
+		String result = WaitingPolicy.create(policy, servers, null).process(new WorkloadCursor(clients, servers, load, seed));
+
+		long nanos = System.nanoTime() - start;
+		if(allocated != -1)
+			allocated = SimulationMetrics.allocatedBytes() - allocated;
+		long peakHeap = 0;
+		for(MemoryPoolMXBean pool : heapPools)
+			peakHeap += pool.getPeakUsage().getUsed();
+		return new Measurement(policy, servers, clients, nanos, peakHeap, allocated, result);
+	}
+
+	/**
+	 * Runs every policy over every workload and writes a line of the report for each run.
+	 * Every line is also shown in the console, since the biggest workloads take a while.
+	 * @param maxClients greatest number of clients, the sizes go from 10^3 up to it.
+	 * @param maxServers greatest number of servers, the counts go from 1 up to it.
+	 * @param report {@link PrintWriter} where the report is written.
+	 * @throws IOException
+	 */
+	public void run(long maxClients, int maxServers, PrintWriter report) throws IOException {
+		println(report, "Scalability report, load " + load + ", seed " + seed);
+		println(report, Measurement.HEADER);
+		for(long servers=1; servers<=maxServers; servers*=10) {
+			for(String policy : WaitingPolicy.NAMES) {
+				boolean skip = false;
+				for(long clients=1000; clients<=maxClients; clients*=10) {
+					if(skip) {
+						println(report, String.format("%-8s %6d %10d skipped", policy, servers, clients));
+						continue;
+					}
+					Measurement m = measure(policy, (int) servers, clients);
+					println(report, m.toString());
+					skip = m.getWallMillis() > timeLimit;
+				}
+			}
+		}
+	}
+
+	private void println(PrintWriter report, String line) {
+		report.println(line);
+		report.flush();
+		System.out.println(line);
+	}
+
+	/**
+	 * Measurement of a run of a policy.
+	 * @author Angel G. Carrillo Laguna
+	 *
+	 */
+	public static class Measurement {
+
+		public static final String HEADER = String.format("%-8s %6s %10s %10s %14s %12s %12s  %s",
+				"policy", "servers", "clients", "wall_ms", "events/s", "peak_heap_MB", "alloc_MB/s", "result");
+
+		private String policy;
+		private int servers;
+		private long clients;
+		private long nanos;
+		private long peakHeap;
+		private long allocated;//-1 if unknown
+		private String result;
+
+		public Measurement(String policy, int servers, long clients, long nanos, long peakHeap, long allocated, String result) {
+			this.policy = policy;
+			this.servers = servers;
+			this.clients = clients;
+			this.nanos = nanos;
+			this.peakHeap = peakHeap;
+			this.allocated = allocated;
+			this.result = result;
+		}
+
+		public long getWallMillis() {
+			return nanos / 1000000;
+		}
+
+		/**
+		 * @return arrivals and departures processed per second.
+		 */
+		public double getEventsPerSecond() {
+			return 2.0 * clients / (nanos / 1e9);
+		}
+
+		public long getPeakHeap() {
+			return peakHeap;
+		}
+
+		/**
+		 * @return bytes allocated per second, negative if unknown.
+		 */
+		public double getAllocationRate() {
+			if(allocated == -1)
+				return -1;
+			return allocated / (nanos / 1e9);
+		}
+
+		/**
+		 * @return statistics of the run, as written in the outputFiles.
+		 */
+		public String getResult() {
+			return result;
+		}
+
+		public String toString() {
+			return String.format("%-8s %6d %10d %10d %14.0f %12.1f %12.1f  %s", policy, servers, clients, getWallMillis(),
+					getEventsPerSecond(), peakHeap / 1048576.0, getAllocationRate() / 1048576.0, result);
+		}
+	}
+}
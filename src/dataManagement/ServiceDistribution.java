@@ -0,0 +1,98 @@
+package dataManagement;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distribution of the service times of the synthetic traces. Service times are whole time units,
+ * so every sample is rounded up and is at least 1.
+ *
+ * A distribution has no state, so the same distribution can be shared by the generators of
+ * several files running at the same time.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public abstract class ServiceDistribution {
+
+	/**
+	 * @param rnd source of random numbers.
+	 * @return exact sample of the distribution.
+	 */
+	protected abstract double sample(SplittableRandom rnd);
+
+	/**
+	 * @param rnd source of random numbers.
+	 * @return next service time, at least 1.
+	 */
+	public int next(SplittableRandom rnd) {
+		double service = Math.ceil(sample(rnd));
+		if(service >= Integer.MAX_VALUE)
+			return Integer.MAX_VALUE;
+		return Math.max(1, (int) service);
+	}
+
+	/**
+	 * @param mean of the service times.
+	 * @return exponential distribution.
+	 */
+	public static ServiceDistribution exponential(double mean) {
+		if(mean <= 0)
+			throw new IllegalArgumentException("Mean must be positive.");
+		return new ServiceDistribution() {
+			protected double sample(SplittableRandom rnd) {
+				return -Math.log(1 - rnd.nextDouble()) * mean;
+			}
+		};
+	}
+
+	/**
+	 * @param mean of the service times.
+	 * @param deviation standard deviation of the service times.
+	 * @return lognormal distribution with the given mean and standard deviation.
+	 */
+	public static ServiceDistribution logNormal(double mean, double deviation) {
+		if(mean <= 0 || deviation <= 0)
+			throw new IllegalArgumentException("Mean and deviation must be positive.");
+		double sigma2 = Math.log(1 + (deviation * deviation) / (mean * mean));
+		double mu = Math.log(mean) - sigma2 / 2;
+		double sigma = Math.sqrt(sigma2);
+		return new ServiceDistribution() {
+			protected double sample(SplittableRandom rnd) {
+				return Math.exp(mu + sigma * gaussian(rnd));
+			}
+		};
+	}
+
+	/**
+	 * @param observed service times, e.g. the ones of a real trace. Each one is drawn with the same probability.
+	 * @return empirical distribution of the observed service times.
+	 */
+	public static ServiceDistribution empirical(int[] observed) {
+		if(observed.length == 0)
+			throw new IllegalArgumentException("At least a service time must be observed.");
+		int[] values = observed.clone();
+		return new ServiceDistribution() {
+			protected double sample(SplittableRandom rnd) {
+				return values[rnd.nextInt(values.length)];
+			}
+		};
+	}
+
+	/**
+	 * @param trace {@link Trace} whose service times are observed.
+	 * @return empirical distribution of the service times of the trace.
+	 */
+	public static ServiceDistribution empirical(Trace trace) {
+		int[] observed = new int[trace.size()];
+		for(int i=0; i<observed.length; i++)
+			observed[i] = trace.getServiceTime(i);
+		return empirical(observed);
+	}
+
+	/**
+	 * @return standard normal sample, by the Box-Muller transform.
+	 */
+	private static double gaussian(SplittableRandom rnd) {
+		return Math.sqrt(-2 * Math.log(1 - rnd.nextDouble())) * Math.cos(2 * Math.PI * rnd.nextDouble());
+	}
+}
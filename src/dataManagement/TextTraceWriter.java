@@ -0,0 +1,65 @@
+package dataManagement;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writer of text data files, with a line "arrival service" for every client. The digits are written
+ * straight into a byte buffer, without creating a String per line.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class TextTraceWriter implements TraceWriter {
+
+	private OutputStream out;
+	private byte[] buffer;
+	private int length;//bytes in the buffer
+
+	/**
+	 * Constructor method. The file is created or truncated.
+	 * @param file data file to be written.
+	 * @throws IOException if the file cannot be created.
+	 */
+	public TextTraceWriter(File file) throws IOException {
+		out = new FileOutputStream(file);
+		buffer = new byte[1 << 16];
+		length = 0;
+	}
+
+	private void writeNumber(int value) {
+		int start = length;
+		do {
+			buffer[length++] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while(value > 0);
+		for(int i=start, j=length - 1; i<j; i++, j--) {//digits were written from the last one
+			byte digit = buffer[i];
+			buffer[i] = buffer[j];
+			buffer[j] = digit;
+		}
+	}
+
+	public void write(int arrivalTime, int serviceTime) throws IOException {
+		if(arrivalTime < 0 || serviceTime < 1)
+			throw new IllegalArgumentException("Arrival time must not be negative and service time must be at least 1.");
+		if(buffer.length - length < 22) {//two ints, a space and the end of line
+			out.write(buffer, 0, length);
+			length = 0;
+		}
+		writeNumber(arrivalTime);
+		buffer[length++] = ' ';
+		writeNumber(serviceTime);
+		buffer[length++] = '\n';
+	}
+
+	public void close() throws IOException {
+		try {
+			out.write(buffer, 0, length);
+		} finally {
+			out.close();
+		}
+	}
+}
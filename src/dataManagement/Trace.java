@@ -0,0 +1,120 @@
+package dataManagement;
+
+import java.util.Arrays;
+
+import useful_classes.Queue;
+import useful_classes.SLLQueue;
+
+/**
+ * Read only trace of the clients of a file, stored as primitive arrays.
+ *
+ * A client is identified by its position in the trace, from 0 to {@code size() - 1}, and the
+ * positions follow the order of the file. The trace is never modified after it is created, so every
+ * simulation can share the same instance instead of copying the input.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public final class Trace {
+
+	private final int[] arrival;
+	private final int[] service;
+	private final int[] id;
+
+	/**
+	 * Constructor method. The arrays are copied.
+	 * @param arrival arrival time of each client.
+	 * @param service service time of each client.
+	 * @param id id of each client, used to determine order of inputs inside a file.
+	 */
+	public Trace(int[] arrival, int[] service, int[] id) {
+		this(arrival.clone(), service.clone(), id.clone(), arrival.length);
+	}
+
+	/**
+	 * Constructor method used by the readers of this package. The arrays are owned by the trace from now on.
+	 * @param size number of clients, the arrays may be longer.
+	 */
+	Trace(int[] arrival, int[] service, int[] id, int size) {
+		if(service.length < size || id.length < size || arrival.length < size)
+			throw new IllegalArgumentException("Arrays are shorter than the size of the trace.");
+		if(arrival.length != size) {
+			int[] a = new int[size], s = new int[size], d = new int[size];
+			System.arraycopy(arrival, 0, a, 0, size);
+			System.arraycopy(service, 0, s, 0, size);
+			System.arraycopy(id, 0, d, 0, size);
+			arrival = a;
+			service = s;
+			id = d;
+		}
+		this.arrival = arrival;
+		this.service = service;
+		this.id = id;
+	}
+
+	/**
+	 * Constructor method. Reads every {@link Client} of the queue, which is left as it was.
+	 * @param file {@link Queue} of {@link Client} created from a file that has been read.
+	 */
+	public Trace(Queue<Client> file) {
+		int size = file.size();
+		arrival = new int[size];
+		service = new int[size];
+		id = new int[size];
+		for(int i=0; i<size; i++) {
+			Client client = file.dequeue();
+			arrival[i] = client.getArrivalTime();
+			service[i] = client.getServiceTime();
+			id[i] = client.getId();
+			file.enqueue(client);//after size turns the queue is back in its original order
+		}
+	}
+
+	public int size() {
+		return arrival.length;
+	}
+
+	public int getArrivalTime(int client) {
+		return arrival[client];
+	}
+
+	public int getServiceTime(int client) {
+		return service[client];
+	}
+
+	public int getId(int client) {
+		return id[client];
+	}
+
+	/**
+	 * Creates the trace of a range of consecutive clients. The ids keep their relative order but are
+	 * renumbered from 0 to the size of the new trace minus 1, like the ids of a trace read from a file.
+	 * @param from position of the first client of the range.
+	 * @param to position after the last client of the range.
+	 * @return new {@link Trace} with the clients of the range.
+	 */
+	public Trace segment(int from, int to) {
+		if(from < 0 || to > size() || from > to)
+			throw new IndexOutOfBoundsException("Range " + from + " to " + to + " is not inside the trace.");
+		int[] ids = Arrays.copyOfRange(id, from, to);
+		int[] sorted = ids.clone();
+		Arrays.sort(sorted);
+		for(int i=0; i<ids.length; i++)
+			ids[i] = Arrays.binarySearch(sorted, ids[i]);//rank of the id inside the range
+		return new Trace(Arrays.copyOfRange(arrival, from, to), Arrays.copyOfRange(service, from, to), ids, to - from);
+	}
+
+	/**
+	 * Creates a {@link Queue} of {@link Client} with the clients of the trace, in the same order.
+	 * @return new {@link SLLQueue} of {@link Client}.
+	 */
+	public Queue<Client> toQueue() {
+		SLLQueue<Client> queue = new SLLQueue<Client>();
+		for(int i=0; i<size(); i++) {
+			Client client = new Client(arrival[i], service[i]);
+			client.setId(id[i]);
+			queue.enqueue(client);
+		}
+		return queue;
+	}
+}
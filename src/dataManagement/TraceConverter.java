@@ -0,0 +1,96 @@
+package dataManagement;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Converter between the text data files ("arrival service" lines) and the binary traces.
+ * The clients are converted one at a time, so files of any size can be converted.
+ * The output is written to a temporary file next to it, which only replaces the output once the whole input has been
+ * converted, so a failed conversion never leaves a partial file behind.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class TraceConverter {
+
+	/**
+	 * Converts a text data file into a binary trace.
+	 * @param text data file to be read.
+	 * @param binary binary trace to be written.
+	 * @return True if the file was converted, false if the text file does not meet the expected format.
+	 * @throws IOException if a file cannot be read or written.
+	 */
+	public static boolean toBinary(File text, File binary) throws IOException {
+		TraceParser parser = new TraceParser(text);
+		File temp = temporary(binary);
+		try {
+			BinaryTraceWriter writer = new BinaryTraceWriter(temp);
+			try {
+				while(parser.next())
+					writer.write(parser.getArrivalTime(), parser.getServiceTime());
+			} finally {
+				writer.close();
+			}
+			if(parser.hasBadFormat())
+				return false;
+			Files.move(temp.toPath(), binary.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		} finally {
+			parser.close();
+			temp.delete();//already moved when the file was converted
+		}
+	}
+
+	/**
+	 * Converts a binary trace into a text data file.
+	 * @param binary binary trace to be read.
+	 * @param text data file to be written.
+	 * @return True if the file was converted, false if the binary trace does not meet the format.
+	 * @throws IOException if a file cannot be read or written.
+	 */
+	public static boolean toText(File binary, File text) throws IOException {
+		BinaryTraceParser parser = new BinaryTraceParser(binary);
+		File temp = temporary(text);
+		try {
+			TextTraceWriter writer = new TextTraceWriter(temp);
+			try {
+				while(parser.next())
+					writer.write(parser.getArrivalTime(), parser.getServiceTime());
+			} finally {
+				writer.close();
+			}
+			if(parser.hasBadFormat())
+				return false;
+			Files.move(temp.toPath(), text.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		} finally {
+			parser.close();
+			temp.delete();//already moved when the file was converted
+		}
+	}
+
+	/**
+	 * @param output file to be written.
+	 * @return new empty file in the directory of the output.
+	 * @throws IOException if the file cannot be created.
+	 */
+	private static File temporary(File output) throws IOException {
+		return File.createTempFile(output.getName(), ".tmp", output.getAbsoluteFile().getParentFile());
+	}
+
+	/**
+	 * Converts a file into the other format: binary traces into text and text files into binary.
+	 * @param input file to be read.
+	 * @param output file to be written.
+	 * @return True if the file was converted, false if the input file does not meet its format.
+	 * @throws IOException if a file cannot be read or written.
+	 */
+	public static boolean convert(File input, File output) throws IOException {
+		if(BinaryTraceParser.isBinary(input))
+			return toText(input, output);
+		return toBinary(input, output);
+	}
+}
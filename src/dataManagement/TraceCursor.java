@@ -0,0 +1,50 @@
+package dataManagement;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Cursor over the clients of a data file, read one at a time in the order of the file.
+ * It lets a simulation pull the arrivals while the file is still being read, so the trace
+ * never has to be in memory.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public interface TraceCursor extends Closeable {
+
+	/**
+	 * Reads the next client of the file.
+	 * @return True if a client was read, false at the end of the file or when the file does not meet its format.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public boolean next() throws IOException;
+
+	/**
+	 * @return arrival time of the last client read.
+	 */
+	public int getArrivalTime();
+
+	/**
+	 * @return service time of the last client read.
+	 */
+	public int getServiceTime();
+
+	/**
+	 * @return True if the file does not meet its format, false otherwise.
+	 */
+	public boolean hasBadFormat();
+
+	/**
+	 * Opens a cursor over a data file, either a text file or a binary trace.
+	 * @param file data file to be read.
+	 * @return {@link BinaryTraceParser} if the file is a binary trace, {@link TraceParser} otherwise.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public static TraceCursor open(File file) throws IOException {
+		if(BinaryTraceParser.isBinary(file))
+			return new BinaryTraceParser(file);
+		return new TraceParser(file);
+	}
+}
@@ -0,0 +1,35 @@
+package dataManagement;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a data file read into a {@link Trace}, see {@link DataReader#readTrace(String)}.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+@Name("bestwaitingpolicy.TraceParse")
+@Label("Trace Parse")
+@Category({"Best Waiting Policy", "Files"})
+@Description("Data file read into memory")
+class TraceParseEvent extends Event {
+
+	@Label("File")
+	String file;
+
+	@Label("Size")
+	@DataAmount
+	long bytes;
+
+	@Label("Binary")
+	boolean binary;
+
+	@Label("Clients")
+	@Description("Clients read, -1 if the file does not meet the expected format")
+	int clients;
+}
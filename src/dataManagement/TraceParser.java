@@ -0,0 +1,170 @@
+package dataManagement;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Parser of the data_i.txt files that reads the file through memory mapped buffers and scans
+ * the digits directly from the bytes, without creating a String per line.
+ *
+ * Every line must have the format "arrival service": a non negative arrival time, one white space
+ * and a service time of at least 1 without leading zeros. This is the same format accepted by the
+ * pattern {@code ^([0-9]+)[\s]([1-9])([0-9]*)$}. Lines may end in "\n", "\r" or "\r\n".
+ * A number too big for an int, or a separator other than a single space, does not meet the format either.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class TraceParser implements TraceCursor {
+
+	private static final long WINDOW = 1L << 28;//bytes mapped at a time
+
+	private FileChannel channel;
+	private long fileSize;
+	private long windowStart;//position in the file of the current window
+	private MappedByteBuffer window;
+	private int index;//position inside the current window
+	private boolean afterCR;//last line ended in '\r', so a '\n' right after it is part of the same end of line
+	private boolean badFormat;
+	private int arrivalTime;
+	private int serviceTime;
+
+	/**
+	 * Constructor method.
+	 * @param file data file to be parsed.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public TraceParser(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		fileSize = channel.size();
+		windowStart = 0;
+		index = 0;
+		window = map(0);
+	}
+
+	private MappedByteBuffer map(long start) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, fileSize - start));
+	}
+
+	/**
+	 * @return next byte of the file, -1 at the end of the file.
+	 */
+	private int read() throws IOException {
+		if(index == window.limit()) {
+			if(windowStart + index == fileSize)
+				return -1;
+			windowStart += index;
+			window = map(windowStart);
+			index = 0;
+		}
+		return window.get(index++) & 0xFF;
+	}
+
+	/**
+	 * Parses the next line of the file.
+	 * @return True if a client was read, false at the end of the file or when a line does not meet the format.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public boolean next() throws IOException {
+		if(badFormat)
+			return false;
+
+		int b = read();
+		if(afterCR && b == '\n')
+			b = read();
+		afterCR = false;
+		if(b == -1)
+			return false;
+
+		long arrival = 0;
+		if(b < '0' || b > '9')
+			return fail();
+		while(b >= '0' && b <= '9') {
+			arrival = arrival * 10 + (b - '0');
+			if(arrival > Integer.MAX_VALUE)
+				return fail();
+			b = read();
+		}
+		if(b != ' ')
+			return fail();
+
+		b = read();
+		if(b < '1' || b > '9')
+			return fail();
+		long service = 0;
+		while(b >= '0' && b <= '9') {
+			service = service * 10 + (b - '0');
+			if(service > Integer.MAX_VALUE)
+				return fail();
+			b = read();
+		}
+		if(b == '\r')
+			afterCR = true;
+		else if(b != '\n' && b != -1)
+			return fail();
+
+		arrivalTime = (int) arrival;
+		serviceTime = (int) service;
+		return true;
+	}
+
+	private boolean fail() {
+		badFormat = true;
+		return false;
+	}
+
+	/**
+	 * @return True if a line of the file does not meet the expected format.
+	 */
+	public boolean hasBadFormat() {
+		return badFormat;
+	}
+
+	public int getArrivalTime() {
+		return arrivalTime;
+	}
+
+	public int getServiceTime() {
+		return serviceTime;
+	}
+
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Parses a whole data file into a {@link Trace}. The id of each client is its position in the file.
+	 * @param file data file to be parsed.
+	 * @return {@link Trace} with the clients of the file, null if the file does not meet the expected format.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static Trace readTrace(File file) throws IOException {
+		TraceParser parser = new TraceParser(file);
+		try {
+			int[] arrival = new int[1024];
+			int[] service = new int[1024];
+			int size = 0;
+			while(parser.next()) {
+				if(size == arrival.length) {
+					arrival = Arrays.copyOf(arrival, 2 * size);
+					service = Arrays.copyOf(service, 2 * size);
+				}
+				arrival[size] = parser.getArrivalTime();
+				service[size] = parser.getServiceTime();
+				size++;
+			}
+			if(parser.hasBadFormat())
+				return null;
+			int[] id = new int[size];
+			for(int i=0; i<size; i++)
+				id[i] = i;//this is used so that MLMSBLL can do the transfers easier
+			return new Trace(arrival, service, id, size);
+		} finally {
+			parser.close();
+		}
+	}
+}
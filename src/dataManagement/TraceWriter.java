@@ -0,0 +1,36 @@
+package dataManagement;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writer of the clients of a data file, one at a time in the order of the file, so a trace
+ * never has to be in memory to be written.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public interface TraceWriter extends Closeable {
+
+	/**
+	 * Writes the next client of the file.
+	 * @param arrivalTime arrival time of the client, not negative.
+	 * @param serviceTime service time of the client, at least 1.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void write(int arrivalTime, int serviceTime) throws IOException;
+
+	/**
+	 * Opens a writer of a data file.
+	 * @param file data file to be written, created or truncated.
+	 * @param binary True to write a binary trace, false to write a text file.
+	 * @return {@link BinaryTraceWriter} or {@link TextTraceWriter}.
+	 * @throws IOException if the file cannot be created.
+	 */
+	public static TraceWriter open(File file, boolean binary) throws IOException {
+		if(binary)
+			return new BinaryTraceWriter(file);
+		return new TextTraceWriter(file);
+	}
+}
@@ -0,0 +1,116 @@
+package dataManagement;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * Cursor over a synthetic workload that is generated while it is read, so workloads of any size can
+ * be simulated or written without holding them in memory.
+ *
+ * The arrival times come from an {@link ArrivalProcess} and the service times from a
+ * {@link ServiceDistribution}. The default workload has Poisson arrivals and exponential service times
+ * with a mean of {@link #MEAN_SERVICE} time units, and its arrival rate is chosen so that the given number
+ * of servers are busy the given fraction of the time, which is the load of the workload.
+ * Loads over 1 make the lines grow without limit.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class WorkloadCursor implements TraceCursor {
+
+	public static final double MEAN_SERVICE = 10;
+
+	private ArrivalProcess arrivals;
+	private ServiceDistribution services;
+	private SplittableRandom rnd;
+	private long size;
+	private long read;//clients generated so far
+	private double time;//exact arrival time of the last client
+	private int arrivalTime;
+	private int serviceTime;
+
+	/**
+	 * Constructor method.
+	 * @param size number of clients.
+	 * @param arrivals {@link ArrivalProcess} of the clients.
+	 * @param services {@link ServiceDistribution} of the service times.
+	 * @param rnd source of random numbers, only used by this cursor.
+	 */
+	public WorkloadCursor(long size, ArrivalProcess arrivals, ServiceDistribution services, SplittableRandom rnd) {
+		this.arrivals = arrivals;
+		this.services = services;
+		this.rnd = rnd;
+		this.size = size;
+		this.read = 0;
+		this.time = 0;
+	}
+
+	/**
+	 * Constructor method of the default workload.
+	 * @param size number of clients.
+	 * @param servers number of servers the load refers to.
+	 * @param load expected fraction of time the servers are busy.
+	 * @param seed of the random numbers, the same seed always gives the same workload.
+	 */
+	public WorkloadCursor(long size, int servers, double load, long seed) {
+		this(size, ArrivalProcess.poisson(load * servers / MEAN_SERVICE), ServiceDistribution.exponential(MEAN_SERVICE),
+				new SplittableRandom(seed));
+	}
+
+	public boolean next() {
+		if(read == size)
+			return false;
+		time = arrivals.next(time, rnd);
+		if(time > Integer.MAX_VALUE)
+			throw new IllegalStateException("Arrival times do not fit in an int, the workload is too long.");
+		arrivalTime = (int) time;
+		serviceTime = services.next(rnd);
+		read++;
+		return true;
+	}
+
+	public int getArrivalTime() {
+		return arrivalTime;
+	}
+
+	public int getServiceTime() {
+		return serviceTime;
+	}
+
+	public boolean hasBadFormat() {
+		return false;
+	}
+
+	public void close() {}
+
+	/**
+	 * Writes the rest of the workload.
+	 * @param writer {@link TraceWriter} of the data file.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void writeTo(TraceWriter writer) throws IOException {
+		while(next())
+			writer.write(arrivalTime, serviceTime);
+	}
+
+	/**
+	 * Generates the whole default workload into a {@link Trace}. The id of each client is its position.
+	 * @param size number of clients.
+	 * @param servers number of servers the load refers to.
+	 * @param load expected fraction of time the servers are busy.
+	 * @param seed of the random numbers.
+	 * @return {@link Trace} with the clients generated.
+	 */
+	public static Trace generate(int size, int servers, double load, long seed) {
+		WorkloadCursor cursor = new WorkloadCursor(size, servers, load, seed);
+		int[] arrival = new int[size];
+		int[] service = new int[size];
+		int[] id = new int[size];
+		for(int i=0; cursor.next(); i++) {
+			arrival[i] = cursor.getArrivalTime();
+			service[i] = cursor.getServiceTime();
+			id[i] = i;
+		}
+		return new Trace(arrival, service, id, size);
+	}
+}
@@ -0,0 +1,71 @@
+package main_classes;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ForkJoinPool;
+
+import dataManagement.DataReader;
+import dataManagement.Trace;
+import policies.CapacityPlanner;
+import policies.RunStatistics;
+import policies.WaitingPolicy;
+
+/**
+ * Finds, for every policy, the smallest number of servers that meets a target waiting time over a data file,
+ * and writes it to outputFiles/data_i_PLAN.txt and to the console.
+ * Usage: CapacityMain data_i target [avg|pNN] [parallelism]
+ * e.g. CapacityMain data_1 5 p90 for a waiting time of at most 5 time units for 90% of the clients.
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class CapacityMain {
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if(args.length < 2) {
+			System.out.println("Usage: CapacityMain data_i target [avg|pNN] [parallelism]");
+			return;
+		}
+		String name = args[0];
+		double target = Double.parseDouble(args[1]);
+		String measure = (args.length > 2) ? args[2] : "avg";
+		int parallelism = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		if(!measure.equals("avg") && !measure.matches("p\\d+(\\.\\d+)?")) {
+			System.out.println("The measure must be avg or a percentile such as p90.");
+			return;
+		}
+		if(!measure.equals("avg") && target != Math.floor(target)) {
+			System.out.println("The target of a percentile must be a whole number of time units.");
+			return;
+		}
+
+		Trace trace = new DataReader(parallelism).readTrace(name);//writes the outputFile when the file is not found or has a bad format
+		if(trace == null)
+			return;
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		PrintWriter out = new PrintWriter("outputFiles/" + name + "_PLAN.txt");
+		try {
+			CapacityPlanner planner = new CapacityPlanner(trace, pool);
+			for(String policy : WaitingPolicy.NAMES) {
+				int servers;
+				if(measure.equals("avg"))
+					servers = planner.minServersForAverage(policy, target);
+				else
+					servers = planner.minServersForPercentile(policy, Double.parseDouble(measure.substring(1)), (long) target);
+				String line;
+				if(servers == -1)
+					line = policy + ": " + measure + " " + args[1] + " not met";
+				else {
+					RunStatistics statistics = planner.getStatistics(policy, servers);
+					line = policy + ": " + servers + " servers, avg " + String.format("%.2f", statistics.getAverageWait()) + " " + statistics;
+				}
+				out.println(line);
+				System.out.println(line);
+			}
+			System.out.println(planner.getSimulations() + " simulations.");
+		} finally {
+			out.close();
+			pool.shutdown();
+		}
+	}
+
+}
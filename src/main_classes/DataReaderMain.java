@@ -1,20 +1,46 @@
-package main_classes;
-
-import java.io.IOException;
-
-import dataManagement.DataReader;
-
-/**
- * Made for testing purposes
- * @author Angel G. Carrillo Laguna
- *
- */
-public class DataReaderMain {
-
-	public static void main(String[] args) throws IOException {
-
-		DataReader dread = new DataReader();
-		dread.mainRead();
-	}
-
-}
+package main_classes;
+
+import java.io.File;
+import java.io.IOException;
+
+import dataManagement.DataReader;
+import dataManagement.ResultCache;
+
+/**
+ * Made for testing purposes
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class DataReaderMain {
+
+	private static final long CACHE_BYTES = 64L << 20;//results kept in the cache directory
+
+	public static void main(String[] args) throws IOException {
+
+		DataReader dread;
+		if(args.length > 0)
+			dread = new DataReader(Integer.parseInt(args[0]));//number of simulations run at the same time
+		else
+			dread = new DataReader();
+		for(int i=1; i<args.length; i++) {
+			if(args[i].equals("stream"))
+				dread.setStreaming(true);//clients are read while the simulations run
+			else if(args[i].equals("percentiles"))
+				dread.setPercentiles(true);//p50/p90/p99/max are added to the results
+			else if(args[i].equals("fused")) {
+				dread.setStreaming(true);
+				dread.setFused(true);//the file is read once for every simulation
+			}
+			else if(args[i].equals("pipelined"))
+				dread.setPipelined(true);//files are read, simulated and written at the same time
+			else if(args[i].equals("metrics"))
+				dread.setMetrics(true);//ticks, events and time of every phase are written to data_i_METRICS.txt
+			else if(args[i].equals("cache"))
+				dread.setCache(new ResultCache(new File("cache"), CACHE_BYTES));//files already simulated are not simulated again
+			else if(args[i].equals("segmented"))
+				dread.setSegmented(true);//every simulation of a file is split where the system is empty
+		}
+		dread.mainRead();
+	}
+
+}
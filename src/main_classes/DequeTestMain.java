@@ -1,25 +1,38 @@
-package main_classes;
-
-import useful_classes.Deque;
-
-/**
- * Main class made for testing the Double Ended Queue Implementation
- * @author Angel G. Carrillo Laguna
- *
- */
-public class DequeTestMain {
-
-	public static void main(String[] args) {
-		// TODO Auto-generated method stub
-
-		Deque<Integer> deque = new Deque<Integer>();
-		for(int i=0; i<21; i++) {
-			deque.enqueue(i);
-			System.out.println(deque);
-		}
-		
-		System.out.println("This is the last node being removed: " + deque.removeLast());
-		System.out.println("This is the new last node: " + deque.last());
-	}
-
-}
+package main_classes;
+
+import useful_classes.CircularDeque;
+import useful_classes.Deque;
+import useful_classes.IntDeque;
+
+/**
+ * Main class made for testing the Double Ended Queue Implementation
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class DequeTestMain {
+
+	public static void main(String[] args) {
+		// TODO Auto-generated method stub
+
+		Deque<Integer> deque = new Deque<Integer>();
+		for(int i=0; i<21; i++) {
+			deque.enqueue(i);
+			System.out.println(deque);
+		}
+		
+		System.out.println("This is the last node being removed: " + deque.removeLast());
+		System.out.println("This is the new last node: " + deque.last());
+		
+		CircularDeque<Integer> circular = new CircularDeque<Integer>(4);//grows from 4 to 32 slots
+		IntDeque ints = new IntDeque(4);
+		for(int i=0; i<21; i++) {
+			circular.enqueue(i);
+			ints.enqueue(i);
+		}
+		System.out.println(circular);
+		System.out.println(ints);
+		System.out.println("This is the last element being removed: " + circular.removeLast() + " " + ints.removeLastInt());
+		System.out.println("This is the new last element: " + circular.last() + " " + ints.lastInt());
+	}
+
+}
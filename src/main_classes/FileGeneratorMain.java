@@ -1,15 +1,94 @@
-package main_classes;
-
-import java.io.FileNotFoundException;
-
-import dataManagement.FileGenerator;
-
-public class FileGeneratorMain {
-
-	public static void main(String[] args) throws FileNotFoundException {
-		FileGenerator genny = new FileGenerator(100, 500);
-		genny.generateFiles(5);
-
-	}
-
-}
+package main_classes;
+
+import java.io.File;
+import java.io.IOException;
+
+import dataManagement.ArrivalProcess;
+import dataManagement.FileGenerator;
+import dataManagement.ServiceDistribution;
+import dataManagement.Trace;
+import dataManagement.TraceParser;
+import dataManagement.WorkloadCursor;
+
+/**
+ * Generates the files needed to run the program.
+ * Without arguments it generates 100 small random files. With the arguments
+ * numFiles clients servers load seed [threads] [bin] [options] it generates numFiles files of the given number of clients,
+ * with Poisson arrivals and exponential service times that keep the given servers busy the given fraction of time,
+ * and a dataFiles.txt that lists all of them. The options change the processes:
+ * hourly=L:f1,f2,... for a daily curve of hours of L time units, in which the rate of each hour is the one of the load times its factor,
+ * bursts=P:B:f for a burst of B time units every P time units, in which the rate is the one of the load times f,
+ * lognormal=D for lognormal service times with a standard deviation of D,
+ * empirical=data_i for the service times of inputFiles/data_i.txt, drawn at random.
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class FileGeneratorMain {
+
+	public static void main(String[] args) throws IOException {
+		if(args.length < 5) {
+			FileGenerator genny = new FileGenerator(100, 500);
+			genny.generateFiles(5);
+			return;
+		}
+		int numFiles = Integer.parseInt(args[0]);
+		int clients = Integer.parseInt(args[1]);
+		int servers = Integer.parseInt(args[2]);
+		double load = Double.parseDouble(args[3]);
+		long seed = Long.parseLong(args[4]);
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean binary = false;
+		String arrivals = "poisson";
+		double mean = WorkloadCursor.MEAN_SERVICE;
+		ServiceDistribution services = ServiceDistribution.exponential(mean);
+		for(int i=5; i<args.length; i++) {
+			String[] option = args[i].split("=", 2);
+			if(args[i].equals("bin"))
+				binary = true;
+			else if(option[0].equals("hourly") || option[0].equals("bursts"))
+				arrivals = args[i];
+			else if(option[0].equals("lognormal"))
+				services = ServiceDistribution.logNormal(mean, Double.parseDouble(option[1]));
+			else if(option[0].equals("empirical")) {
+				Trace trace = TraceParser.readTrace(new File("inputFiles/" + option[1] + ".txt"));
+				if(trace == null || trace.size() == 0) {
+					System.out.println("Input file does not meet the expected format or it is empty.");
+					return;
+				}
+				long total = 0;
+				for(int j=0; j<trace.size(); j++)
+					total += trace.getServiceTime(j);
+				mean = (double) total / trace.size();//so the load is kept
+				services = ServiceDistribution.empirical(trace);
+			}
+			else
+				threads = Integer.parseInt(args[i]);
+		}
+
+		FileGenerator genny = new FileGenerator(numFiles, clients);
+		genny.genData_i(arrivals(arrivals, load * servers / mean), services, seed, threads, binary);
+		genny.genDataFiles();//every file generated, so the seed gives the same workload
+	}
+
+	/**
+	 * @param option poisson, hourly=L:f1,f2,... or bursts=P:B:f.
+	 * @param rate clients per time unit given by the load.
+	 * @return {@link ArrivalProcess} of the option.
+	 */
+	private static ArrivalProcess arrivals(String option, double rate) {
+		if(option.startsWith("hourly=")) {
+			String[] parts = option.substring(7).split(":");
+			String[] factors = parts[1].split(",");
+			double[] rates = new double[factors.length];
+			for(int i=0; i<rates.length; i++)
+				rates[i] = rate * Double.parseDouble(factors[i]);
+			return ArrivalProcess.hourly(rates, Double.parseDouble(parts[0]));
+		}
+		if(option.startsWith("bursts=")) {
+			String[] parts = option.substring(7).split(":");
+			return ArrivalProcess.bursts(rate, rate * Double.parseDouble(parts[2]), Double.parseDouble(parts[0]), Double.parseDouble(parts[1]));
+		}
+		return ArrivalProcess.poisson(rate);
+	}
+
+}
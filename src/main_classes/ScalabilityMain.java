@@ -0,0 +1,31 @@
+package main_classes;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import dataManagement.ScalabilityHarness;
+
+/**
+ * Runs the scalability test and writes the report to outputFiles/scalability_report.txt and to the console.
+ * Usage: ScalabilityMain [maxClients] [maxServers] [timeLimitSeconds] [load]
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class ScalabilityMain {
+
+	public static void main(String[] args) throws IOException {
+		long maxClients = (args.length > 0) ? Long.parseLong(args[0]) : 100000000L;
+		int maxServers = (args.length > 1) ? Integer.parseInt(args[1]) : 10000;
+		long timeLimit = (args.length > 2) ? 1000 * Long.parseLong(args[2]) : 60000;
+		double load = (args.length > 3) ? Double.parseDouble(args[3]) : 0.9;
+
+		ScalabilityHarness harness = new ScalabilityHarness(load, 42, timeLimit);
+		PrintWriter report = new PrintWriter("outputFiles/scalability_report.txt");
+		try {
+			harness.run(maxClients, maxServers, report);
+		} finally {
+			report.close();
+		}
+	}
+
+}
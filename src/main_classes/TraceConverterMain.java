@@ -0,0 +1,25 @@
+package main_classes;
+
+import java.io.File;
+import java.io.IOException;
+
+import dataManagement.TraceConverter;
+
+/**
+ * Converts a data file into the other format: text files into binary traces and binary traces into text.
+ * Usage: TraceConverterMain input output
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class TraceConverterMain {
+
+	public static void main(String[] args) throws IOException {
+		if(args.length != 2) {
+			System.out.println("Usage: TraceConverterMain input output");
+			return;
+		}
+		if(!TraceConverter.convert(new File(args[0]), new File(args[1])))
+			System.out.println("Input file does not meet the expected format.");
+	}
+
+}
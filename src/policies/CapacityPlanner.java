@@ -0,0 +1,202 @@
+package policies;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.ToDoubleFunction;
+
+import dataManagement.Trace;
+
+/**
+ * Finds the smallest number of servers with which a policy meets a target waiting time over a {@link Trace}.
+ *
+ * The waiting times are taken to go down as servers are added, so the number of servers is found by an
+ * exponential search for a number that meets the target (1, 2, 4, 8...) followed by a binary search below it.
+ * On the few traces in which adding a server makes the clients wait longer, the number found meets the target,
+ * but a smaller one might meet it too. More servers than clients cannot change the result, so the exponential
+ * search stops at as many servers as clients, and a target that is not met with that many servers is reported as not met.
+ * Some targets are never met whatever the number of servers: every client waits at least 1 time unit, and in
+ * {@link MLMS} and {@link MLMSBLL} a client may wait in the line of a busy server while another one is idle.
+ * Several numbers of servers are simulated at the same time in a {@link ForkJoinPool}: the exponential search
+ * tries as many powers of 2 as threads at once, and the binary search splits its range in as many parts as threads
+ * plus one. Only the value of the measure is kept for every number of servers simulated, so they are never simulated
+ * twice for the same measure, and the {@link RunStatistics} are only kept for the numbers returned.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class CapacityPlanner {
+
+	private Trace trace;
+	private ForkJoinPool pool;
+	private int maxServers;//more servers give the same result
+	private HashMap<String, Double> evaluated;//value of the measure by policy, measure and number of servers
+	private HashMap<String, RunStatistics> found;//by policy and number of servers, only for the numbers returned
+	private int simulations;
+
+	/**
+	 * Constructor method.
+	 * @param trace {@link Trace} with the clients sorted by arrival time.
+	 * @param pool {@link ForkJoinPool} that runs the simulations.
+	 */
+	public CapacityPlanner(Trace trace, ForkJoinPool pool) {
+		this.trace = trace;
+		this.pool = pool;
+		this.maxServers = Math.max(1, trace.size());
+		this.evaluated = new HashMap<String, Double>();
+		this.found = new HashMap<String, RunStatistics>();
+	}
+
+	/**
+	 * @param policy name of the policy, one of {@link WaitingPolicy#NAMES}.
+	 * @param maxAverage greatest average waiting time allowed.
+	 * @return smallest number of servers with an average waiting time of at most maxAverage, -1 if there is none.
+	 * @throws InterruptedException if the thread is interrupted while waiting for the simulations.
+	 */
+	public int minServersForAverage(String policy, double maxAverage) throws InterruptedException {
+		return search(policy, "avg", statistics -> (statistics.getClients() == 0) ? 0 : statistics.getAverageWait(), maxAverage);
+	}
+
+	/**
+	 * The percentiles are those of {@link RunStatistics#getWait()}, exact up to 256 time units and within 1% above.
+	 * @param policy name of the policy, one of {@link WaitingPolicy#NAMES}.
+	 * @param percentile from 0 to 100, e.g. 90 for the waiting time of 90% of the clients.
+	 * @param maxWait greatest waiting time allowed for that percentile.
+	 * @return smallest number of servers whose percentile of the waiting times is at most maxWait, -1 if there is none.
+	 * @throws InterruptedException if the thread is interrupted while waiting for the simulations.
+	 */
+	public int minServersForPercentile(String policy, double percentile, long maxWait) throws InterruptedException {
+		if(percentile < 0 || percentile > 100)
+			throw new IllegalArgumentException("The percentile must be from 0 to 100.");
+		return search(policy, "p" + percentile, statistics -> statistics.getWait().getPercentile(percentile), maxWait);
+	}
+
+	/**
+	 * @param policy name of the policy, one of {@link WaitingPolicy#NAMES}.
+	 * @param servers number of server posts.
+	 * @return {@link RunStatistics} of the policy with that number of servers, null if it has not been returned by a search.
+	 */
+	public RunStatistics getStatistics(String policy, int servers) {
+		return found.get(policy + " " + servers);
+	}
+
+	/**
+	 * @return number of simulations run so far.
+	 */
+	public int getSimulations() {
+		return simulations;
+	}
+
+	/**
+	 * Exponential search followed by a binary search, simulating several numbers of servers at the same time.
+	 * @param policy name of the policy.
+	 * @param measure name of the measure, e.g. avg or p90.
+	 * @param value value of the measure in the statistics of a simulation.
+	 * @param target greatest value of the measure allowed.
+	 * @return smallest number of servers that meets the target, -1 if there is none.
+	 */
+	private int search(String policy, String measure, ToDoubleFunction<RunStatistics> value, double target) throws InterruptedException {
+		String key = policy + " " + measure + " ";
+		int batch = pool.getParallelism();
+		int lo = 0;//greatest number of servers known not to meet the target
+		int hi = -1;//smallest number of servers known to meet it, -1 if none
+		RunStatistics best = null;//statistics of hi, null if they are not at hand
+		while(hi == -1 && lo < maxServers) {
+			ArrayList<Integer> counts = new ArrayList<Integer>();
+			long next = Math.max(1, 2L * lo);
+			while(counts.size() < batch && next <= maxServers) {
+				counts.add((int) next);
+				next *= 2;
+			}
+			if(counts.size() < batch && (counts.isEmpty() || counts.get(counts.size() - 1) < maxServers))
+				counts.add(maxServers);//the last power of 2 falls short of the limit
+			HashMap<Integer, RunStatistics> simulated = evaluate(policy, key, value, counts);
+			for(int count : counts) {
+				if(evaluated.get(key + count) <= target) {
+					hi = count;
+					best = simulated.get(count);
+					break;
+				}
+				lo = count;
+			}
+		}
+		if(hi == -1)
+			return -1;//not even met with as many servers as clients
+
+		while(hi - lo > 1) {
+			int parts = Math.min(batch, hi - lo - 1) + 1;
+			ArrayList<Integer> counts = new ArrayList<Integer>();
+			for(int j=1; j<parts; j++) {
+				int count = (int) (lo + (long) (hi - lo) * j / parts);
+				if(count > lo && count < hi && (counts.isEmpty() || counts.get(counts.size() - 1) < count))
+					counts.add(count);
+			}
+			HashMap<Integer, RunStatistics> simulated = evaluate(policy, key, value, counts);
+			int newLo = lo;
+			for(int count : counts) {
+				if(evaluated.get(key + count) <= target) {
+					hi = count;
+					best = simulated.get(count);
+					break;
+				}
+				newLo = count;
+			}
+			lo = newLo;
+		}
+		if(best == null)
+			best = getStatistics(policy, hi);
+		if(best == null) {//its value was kept by an earlier search with the same measure
+			best = simulate(policy, hi);
+			simulations++;
+		}
+		found.put(policy + " " + hi, best);
+		return hi;
+	}
+
+	/**
+	 * @param policy name of the policy.
+	 * @param servers number of server posts.
+	 * @return {@link RunStatistics} of the policy with that number of servers.
+	 */
+	private RunStatistics simulate(String policy, int servers) {
+		WaitingPolicy simulation = WaitingPolicy.create(policy, servers, trace);
+		simulation.process();
+		return simulation.getEngine().getStatistics();
+	}
+
+	/**
+	 * Simulates the policy with every number of servers whose measure is not known yet, at the same time,
+	 * and keeps the value of the measure.
+	 * @param policy name of the policy.
+	 * @param key of the policy and the measure in the values kept.
+	 * @param value value of the measure in the statistics of a simulation.
+	 * @param counts numbers of servers.
+	 * @return {@link RunStatistics} of the numbers of servers just simulated, by number of servers.
+	 */
+	private HashMap<Integer, RunStatistics> evaluate(String policy, String key, ToDoubleFunction<RunStatistics> value, ArrayList<Integer> counts) throws InterruptedException {
+		ArrayList<Integer> missing = new ArrayList<Integer>();
+		ArrayList<Future<RunStatistics>> futures = new ArrayList<Future<RunStatistics>>();
+		for(int count : counts) {
+			if(evaluated.containsKey(key + count))
+				continue;
+			missing.add(count);
+			futures.add(pool.submit(() -> simulate(policy, count)));
+		}
+		HashMap<Integer, RunStatistics> simulated = new HashMap<Integer, RunStatistics>();
+		try {
+			for(int i=0; i<futures.size(); i++) {
+				RunStatistics statistics = futures.get(i).get();
+				evaluated.put(key + missing.get(i), value.applyAsDouble(statistics));
+				simulated.put(missing.get(i), statistics);
+				simulations++;
+			}
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+		return simulated;
+	}
+}
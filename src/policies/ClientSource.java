@@ -0,0 +1,66 @@
+package policies;
+
+/**
+ * Source of the clients of a simulation, used by the {@link EventEngine}.
+ *
+ * The clients arrive in the order of the file. Every client that arrived is identified by an int
+ * (its position in a {@link dataManagement.Trace} or a slot that is reused once the client leaves),
+ * which is the int the {@link WaitingPolicy} keeps in its lines. The source also counts the clients
+ * overpassed as they start their service, since how it can be done depends on whether the whole trace is known.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+abstract class ClientSource {
+
+	/**
+	 * @return True if some client is still to arrive, false otherwise.
+	 */
+	abstract boolean hasNext();
+
+	/**
+	 * @return arrival time of the next client to arrive.
+	 */
+	abstract int nextArrivalTime();
+
+	/**
+	 * The next client arrives.
+	 * @return int that identifies the client while it is in the system.
+	 */
+	abstract int admit();
+
+	abstract int getArrivalTime(int client);
+
+	abstract int getServiceTime(int client);
+
+	/**
+	 * @param client that arrived.
+	 * @return id of the client, used to determine order of inputs inside a file.
+	 */
+	abstract int getId(int client);
+
+	/**
+	 * Called when a client starts its service.
+	 * @param client that starts its service.
+	 * @param time current time unit.
+	 */
+	abstract void started(int client, int time);
+
+	/**
+	 * Called when a client completes its service and leaves the system.
+	 * @param client that leaves.
+	 */
+	void completed(int client) {}
+
+	/**
+	 * @return number of clients that started their service so far before somebody who arrived earlier.
+	 */
+	abstract long getOverpassingClients();
+
+	/**
+	 * @return True if the input stopped at a client that does not meet the expected format, false otherwise.
+	 */
+	boolean hasBadFormat() {
+		return false;
+	}
+}
@@ -0,0 +1,54 @@
+package policies;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a client starting its service. There may be millions of them in a run, so the event is
+ * disabled unless the recording enables it, and then only one of every {@link #SAMPLE} dispatches is committed.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+@Name("bestwaitingpolicy.Dispatch")
+@Label("Dispatch")
+@Category({"Best Waiting Policy", "Simulation"})
+@Description("Sampled client starting its service")
+@Enabled(false)
+@StackTrace(false)
+class DispatchEvent extends Event {
+
+	/**
+	 * One of every SAMPLE dispatches is recorded.
+	 */
+	static final int SAMPLE = 1024;
+
+	@Label("Policy")
+	String policy;
+
+	@Label("Server")
+	int server;
+
+	@Label("Time Unit")
+	@Description("Time unit of the simulation in which the service started")
+	int time;
+
+	@Label("Waiting Time")
+	int waitingTime;
+
+	@Label("Service Time")
+	int serviceTime;
+
+	/**
+	 * @return True if a recording has the event enabled, checked when an engine is created.
+	 */
+	static boolean isRecorded() {
+		return EventType.getEventType(DispatchEvent.class).isEnabled();
+	}
+}
@@ -0,0 +1,402 @@
+package policies;
+
+import java.io.IOException;
+
+import dataManagement.Trace;
+import dataManagement.TraceCursor;
+import useful_classes.BitIndexSet;
+import useful_classes.EventCalendar;
+
+/**
+ * Event driven simulation engine shared by all the waiting policies.
+ *
+ * The engine keeps a priority calendar with the next arrival and the departure of every
+ * client being served, so the clock jumps straight to the next time unit in which
+ * something happens. On every processed time unit it releases the completed services, lets the
+ * {@link WaitingPolicy} attend the clients waiting and then lets the new clients arrive, in the
+ * same order the policies have always used.
+ *
+ * The {@link Trace} is only read, so several engines can share the same trace. The statistics of the
+ * run are kept in a {@link RunStatistics}, whose size does not depend on the number of clients.
+ * The engine can also run over a {@link TraceCursor}, pulling the clients while the file is read. Then
+ * only the clients in the system are kept in memory, whatever the length of the file.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class EventEngine {
+
+	/**
+	 * Version of the results given by the engine, to be increased whenever a change may give different
+	 * results for the same trace, see {@link dataManagement.ResultCache}.
+	 */
+	public static final int VERSION = 1;
+
+	private WaitingPolicy policy;
+	private ClientSource source;
+	private int[] servers;//client being attended at each post, -1 if available
+	private BitIndexSet idle;//available posts
+	private int busy;
+	private int waiting;//clients in line
+	private int time;//current time unit
+	private RunStatistics statistics;
+	private long overpassClients;
+	private int horizon;//time of a client that will never arrive, -1 if none, see runUntil
+	private boolean started;//the first arrival has been scheduled
+	private EventCalendar calendar;
+	private SimulationMetrics metrics;//null when the run is not measured
+	private boolean sampling;//a Flight Recorder recording asks for the dispatches, see DispatchEvent
+	private long dispatched;
+
+	/**
+	 * Constructor method.
+	 * @param policy {@link WaitingPolicy} that decides the routing and dispatch of clients.
+	 * @param trace {@link Trace} with the clients sorted by arrival time.
+	 */
+	public EventEngine(WaitingPolicy policy, Trace trace) {
+		this(policy, new TraceSource(trace));
+	}
+
+	/**
+	 * Constructor method. Reads the first client of the cursor.
+	 * @param policy {@link WaitingPolicy} that decides the routing and dispatch of clients.
+	 * @param cursor {@link TraceCursor} over the clients sorted by arrival time.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public EventEngine(WaitingPolicy policy, TraceCursor cursor) throws IOException {
+		this(policy, new StreamSource(cursor));
+	}
+
+	private EventEngine(WaitingPolicy policy, ClientSource source) {
+		this.policy = policy;
+		this.source = source;
+		this.servers = new int[policy.getServerNum()];
+		for(int i=0; i<servers.length; i++)
+			servers[i] = -1;
+		this.idle = new BitIndexSet(servers.length, true);
+		this.busy = 0;
+		this.waiting = 0;
+		this.time = 0;
+		this.statistics = new RunStatistics();
+		this.overpassClients = 0;
+		this.horizon = -1;
+		this.started = false;
+		this.calendar = new EventCalendar(servers.length + 1);
+		this.metrics = policy.getMetrics();
+		this.sampling = DispatchEvent.isRecorded();
+	}
+
+	public boolean isAvailable(int server) {
+		return idle.contains(server);
+	}
+
+	public int getTime() {
+		return time;
+	}
+
+	public int getArrivalTime(int client) {
+		return source.getArrivalTime(client);
+	}
+
+	public int getServiceTime(int client) {
+		return source.getServiceTime(client);
+	}
+
+	/**
+	 * @param client that arrived.
+	 * @return id of the client, used to determine order of inputs inside a file.
+	 */
+	public int getId(int client) {
+		return source.getId(client);
+	}
+
+	/**
+	 * @return {@link RunStatistics} of the clients attended so far.
+	 */
+	public RunStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Adds the arrival of the next client of the trace to the calendar.
+	 */
+	private void scheduleArrival() {
+		if(source.hasNext())
+			calendar.schedule(source.nextArrivalTime(), EventCalendar.ARRIVAL, 0);
+		else if(horizon != -1)
+			calendar.schedule(horizon, EventCalendar.ARRIVAL, 0);//it is never removed, since nobody arrives
+	}
+
+	/**
+	 * @return True if some client is still to arrive, false otherwise.
+	 */
+	private boolean arrivalsPending() {
+		return source.hasNext() || horizon != -1;
+	}
+
+	/**
+	 * Releases every server whose departure event happens in the current time unit.
+	 */
+	public void checkCompleted() {
+		while(!calendar.isEmpty() && calendar.nextKind() == EventCalendar.DEPARTURE
+				&& calendar.nextTime() == time) {
+			int server = calendar.nextPayload();
+			int client = servers[server];
+			servers[server] = -1;
+			idle.add(server);
+			busy--;
+			calendar.removeNext();
+			policy.serviceCompleted(server);
+			source.completed(client);
+		}
+	}
+
+	/**
+	 * Method to start giving service to the next client of every available server whenever possible.
+	 * The available servers are visited from min to max index. When the policy tells which lines
+	 * have clients waiting, only the available servers of those lines are visited.
+	 */
+	public void getAttended() {
+		BitIndexSet lines = policy.getWaitingLines();
+		int i = (lines == null) ? idle.next(0) : idle.nextCommon(lines, 0);
+		while(i != -1 && waiting > 0) {
+			int jb = policy.nextClient(i);
+			if(jb != -1) {
+				statistics.attended(time - source.getArrivalTime(jb), source.getServiceTime(jb));
+				source.started(jb, time);
+				servers[i] = jb;
+				idle.remove(i);
+				busy++;
+				waiting--;
+				calendar.schedule(time + source.getServiceTime(jb), EventCalendar.DEPARTURE, i);
+				if(sampling && ++dispatched % DispatchEvent.SAMPLE == 0)
+					recordDispatch(i, jb);
+			}
+			i = (lines == null) ? idle.next(i + 1) : idle.nextCommon(lines, i + 1);
+		}
+	}
+
+	/**
+	 * Commits a {@link DispatchEvent} of a client that just started its service.
+	 * @param server index of the server.
+	 * @param client that started its service.
+	 */
+	private void recordDispatch(int server, int client) {
+		DispatchEvent event = new DispatchEvent();
+		event.policy = policy.getName();
+		event.server = server;
+		event.time = time;
+		event.waitingTime = time - source.getArrivalTime(client);
+		event.serviceTime = source.getServiceTime(client);
+		event.commit();
+	}
+
+	/**
+	 * Lets arrive every client whose arrival event happens in the current time unit.
+	 * @return True if at least one client arrived, false otherwise.
+	 */
+	public boolean checkArrival() {
+		boolean arrived = false;
+		while(source.hasNext() && calendar.nextKind() == EventCalendar.ARRIVAL
+				&& calendar.nextTime() <= time) {
+			calendar.removeNext();
+			statistics.arrived(waiting);
+			policy.arrive(source.admit());
+			if(metrics != null)
+				metrics.lineLength(policy.getArrivalLineLength());
+			waiting++;
+			arrived = true;
+			scheduleArrival();
+		}
+		return arrived;
+	}
+
+	/**
+	 * Moves the clock to the next time unit that has to be processed. While clients are still to arrive
+	 * it goes to the earliest event in the calendar. Afterwards the time units are processed one by one
+	 * unless the policy has nothing left to do before the next departure.
+	 * @param arrived whether a client arrived in the time unit just processed.
+	 */
+	public void timeSkip(boolean arrived) {
+		time++;
+		int min = time;
+		if(arrivalsPending())
+			min = calendar.nextTime();
+		else if(busy > 0 && !arrived && !policy.hasPendingWork())
+			min = calendar.nextTime();
+
+		if(time < min) {
+			policy.timeSkipped(min - time);
+			time = min;
+		}
+	}
+
+	/**
+	 * Boolean method to determine if the process has been finished.
+	 * @return True if nobody is to arrive, waiting or being attended.
+	 */
+	public boolean done() {
+		return !source.hasNext() && waiting == 0 && busy == 0;
+	}
+
+	/**
+	 * The count is kept up to date as the clients start their service, so it can be asked during the run.
+	 * @return number of clients overpassed so far.
+	 */
+	public long getOverpassingClients() {
+		return source.getOverpassingClients();
+	}
+
+	/**
+	 * Sets the total number of clients that arriver after a certain client but completed their service earlier.
+	 */
+	public void setOverpassingClients() {
+		overpassClients = source.getOverpassingClients();
+	}
+
+	/**
+	 * Schedules the first arrival, only the first time it is called.
+	 */
+	private void start() {
+		if(!started)
+			scheduleArrival();
+		started = true;
+	}
+
+	/**
+	 * Processes the current time unit and moves the clock to the next one.
+	 */
+	private void step() {
+		checkCompleted();
+		policy.beforeAttending();
+		getAttended();
+		timeSkip(checkArrival());
+	}
+
+	/**
+	 * Same as {@link #step()}, measuring every phase of the time unit in the {@link SimulationMetrics}.
+	 */
+	private void meteredStep() {
+		int before = busy;
+		long start = System.nanoTime();
+		checkCompleted();
+		long completed = System.nanoTime();
+		policy.beforeAttending();
+		long monitored = System.nanoTime();
+		getAttended();
+		long attended = System.nanoTime();
+		int departures = before - busy;
+		before = waiting;
+		boolean arrived = checkArrival();
+		long end = System.nanoTime();
+		int arrivals = waiting - before;
+		int current = time;
+		timeSkip(arrived);
+		metrics.tick(departures, arrivals, time - current - 1, completed - start, monitored - completed, attended - monitored, end - attended);
+	}
+
+	/**
+	 * Runs the simulation until every client has been attended.
+	 * @return String with calculated statistics, null if the clients are read from a file that does not meet the expected format.
+	 */
+	public String run() {
+		PolicyRunEvent event = new PolicyRunEvent();
+		event.begin();
+		start();
+		if(metrics == null) {
+			while(!done())
+				step();
+		} else {
+			long allocated = SimulationMetrics.allocatedBytes();
+			long start = System.nanoTime();
+			while(!done())
+				meteredStep();
+			long end = System.nanoTime();
+			metrics.finished(end - start, (allocated < 0) ? -1 : SimulationMetrics.allocatedBytes() - allocated);
+		}
+		event.end();
+		if(event.shouldCommit()) {
+			event.policy = policy.getName();
+			event.servers = servers.length;
+			event.clients = statistics.getClients();
+			event.streaming = source instanceof StreamSource;
+			event.commit();
+		}
+		return getResult();
+	}
+
+	/**
+	 * Processes every time unit before the given one and stops, so the simulation can go on later with another
+	 * call. It lets several simulations be fed with the same clients while they are read, see {@link FusedSimulation}.
+	 * The source must have the clients that arrive up to the given time unit, and the first one that arrives after it.
+	 * @param boundary first time unit that is not processed.
+	 */
+	public void advance(int boundary) {
+		start();
+		if(metrics == null) {
+			while(!done() && time < boundary)
+				step();
+		} else {
+			while(!done() && time < boundary)
+				meteredStep();
+		}
+	}
+
+	/**
+	 * Processes every time unit left, once the source has every client that is to arrive, see {@link #advance(int)}.
+	 */
+	public void finish() {
+		start();
+		if(metrics == null) {
+			while(!done())
+				step();
+		} else {
+			while(!done())
+				meteredStep();
+		}
+	}
+
+	/**
+	 * @return String with calculated statistics once every client has been attended, null if the clients
+	 * are read from a file that does not meet the expected format.
+	 */
+	public String getResult() {
+		if(source.hasBadFormat())
+			return null;
+		setOverpassingClients();//ovrpass total
+		if(metrics != null)
+			metrics.addTransfers(policy.getTransfers());
+		return result(policy.getName(), servers.length, time, statistics, overpassClients);
+	}
+
+	/**
+	 * Runs the simulation as if one more client arrived at the given time, and stops in that time unit just
+	 * before the client would arrive. The clock moves as it would in a simulation of a longer trace in which
+	 * that client comes next.
+	 * @param horizon arrival time of the client, greater than the arrival time of every client of the trace.
+	 * @return True if every line was empty and every server idle at that moment, false otherwise.
+	 */
+	boolean runUntil(int horizon) {
+		this.horizon = horizon;
+		start();
+		while(time < horizon)
+			step();
+		checkCompleted();
+		policy.beforeAttending();
+		getAttended();
+		return waiting == 0 && busy == 0;
+	}
+
+	/**
+	 * @param name name of the policy.
+	 * @param serverNum number of server posts.
+	 * @param time time unit in which the simulation finished.
+	 * @param statistics {@link RunStatistics} of the simulation.
+	 * @param overpassClients total number of clients overpassed.
+	 * @return String with calculated statistics, as given by {@link #run()}.
+	 */
+	static String result(String name, int serverNum, int time, RunStatistics statistics, long overpassClients) {
+		double avgWaitperClient = statistics.getAverageWait(); //avg waiting time per client
+		return name + " " + serverNum + ": " + (time-1) + " " + String.format("%.2f",avgWaitperClient) + " " + overpassClients;
+	}
+}
@@ -0,0 +1,173 @@
+package policies;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import dataManagement.TraceCursor;
+
+/**
+ * Simulation of several policies that read the clients of a file only once.
+ *
+ * The clients are read from a single {@link TraceCursor} in batches, which are kept in a buffer shared by
+ * every simulation. After each batch is read, every simulation is advanced (see {@link EventEngine#advance(int)})
+ * up to the arrival time of the last client of the buffer, so all of them take the same clients of the buffer
+ * and the batch is still in the cache. Then the clients every simulation took are dropped and the next batch is read.
+ * Only the clients of the buffer and the clients in the system of each simulation are in memory.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class FusedSimulation {
+
+	private static final int BATCH = 1 << 14;//clients read at a time
+
+	private ArrayList<WaitingPolicy> policies;
+	private int[] arrival;//clients of the buffer
+	private int[] service;
+	private long base;//position in the file of the first client of the buffer
+	private int size;//clients in the buffer
+	private boolean finished;//every client of the file has been read
+	private boolean badFormat;
+
+	/**
+	 * Constructor method.
+	 * @param policies {@link ArrayList} of {@link WaitingPolicy} created without a trace, to be processed.
+	 */
+	public FusedSimulation(ArrayList<WaitingPolicy> policies) {
+		this.policies = policies;
+	}
+
+	/**
+	 * {@link TraceCursor} of a simulation over the clients of the shared buffer.
+	 */
+	private class BufferCursor implements TraceCursor {
+		private long position = -1;//position in the file of the current client
+
+		public boolean next() {
+			if(position + 1 - base >= size) {
+				if(!finished)//the simulations never go past the last client of the buffer unless the file is over
+					throw new IllegalStateException("The clients of the buffer are over.");
+				return false;
+			}
+			position++;
+			return true;
+		}
+
+		public int getArrivalTime() {
+			return arrival[(int) (position - base)];
+		}
+
+		public int getServiceTime() {
+			return service[(int) (position - base)];
+		}
+
+		public boolean hasBadFormat() {
+			return badFormat;
+		}
+
+		public void close() {}
+	}
+
+	/**
+	 * Drops the clients that every simulation took and reads the next batch.
+	 * @param cursor {@link TraceCursor} over the file.
+	 * @param taken position in the file of the first client that has not been taken.
+	 */
+	private void read(TraceCursor cursor, long taken) throws IOException {
+		int kept = (int) (base + size - taken);
+		System.arraycopy(arrival, size - kept, arrival, 0, kept);
+		System.arraycopy(service, size - kept, service, 0, kept);
+		base = taken;
+		size = kept;
+		if(size + BATCH > arrival.length) {
+			arrival = Arrays.copyOf(arrival, size + BATCH);
+			service = Arrays.copyOf(service, size + BATCH);
+		}
+		int read = 0;
+		while(read < BATCH && cursor.next()) {
+			arrival[size] = cursor.getArrivalTime();
+			service[size] = cursor.getServiceTime();
+			size++;
+			read++;
+		}
+		if(read < BATCH) {
+			finished = true;
+			badFormat = cursor.hasBadFormat();
+		}
+	}
+
+	/**
+	 * Processes every policy while the file is read once.
+	 * @param cursor {@link TraceCursor} over the clients, sorted by arrival time. It is not closed.
+	 * @param pool {@link ForkJoinPool} that advances the simulations at the same time, null to advance them one after another.
+	 * @return {@link ArrayList} with the results, in the same order of the policies. Null if the file does not meet the expected format.
+	 * @throws IOException if the file cannot be read.
+	 * @throws UnsortedTraceException if the clients are not sorted by arrival time.
+	 */
+	public ArrayList<String> process(TraceCursor cursor, ForkJoinPool pool) throws IOException {
+		arrival = new int[BATCH];
+		service = new int[BATCH];
+		base = 0;
+		size = 0;
+		finished = false;
+		badFormat = false;
+		read(cursor, 0);
+
+		ArrayList<EventEngine> engines = new ArrayList<EventEngine>();
+		for(WaitingPolicy policy : policies)
+			engines.add(policy.attach(new BufferCursor()));
+		while(!finished) {
+			int boundary = arrival[size - 1];//its clients may go on in the next batch
+			advance(engines, engine -> engine.advance(boundary), pool);
+			long taken = base;//every client that arrives before the boundary has been taken
+			while(taken - base < size && arrival[(int) (taken - base)] < boundary)
+				taken++;
+			read(cursor, taken);
+		}
+		advance(engines, EventEngine::finish, pool);//every client has been read
+
+		if(badFormat)
+			return null;
+		ArrayList<String> results = new ArrayList<String>();
+		for(EventEngine engine : engines)
+			results.add(engine.getResult());
+		return results;
+	}
+
+	/**
+	 * @param engines {@link EventEngine} of every policy.
+	 * @param step what each engine does, e.g. advance up to a time unit.
+	 * @param pool {@link ForkJoinPool} that runs the engines at the same time, null to run them one after another.
+	 */
+	private void advance(ArrayList<EventEngine> engines, Consumer<EventEngine> step, ForkJoinPool pool) {
+		if(pool == null) {
+			for(EventEngine engine : engines)
+				step.accept(engine);
+			return;
+		}
+		ArrayList<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for(EventEngine engine : engines) {
+			tasks.add(() -> {
+				step.accept(engine);
+				return null;
+			});
+		}
+		try {
+			for(Future<Object> future : pool.invokeAll(tasks))
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while advancing the simulations.", e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+}
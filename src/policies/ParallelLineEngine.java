@@ -0,0 +1,382 @@
+package policies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import dataManagement.Trace;
+import useful_classes.EventCalendar;
+import useful_classes.IntDeque;
+import useful_classes.MinIndexTree;
+
+/**
+ * Conservative parallel simulation of the policies in which every clerk attends only its own line, {@link MLMS}
+ * and {@link MLMSBWT}, for configurations with a great number of servers.
+ *
+ * Once a client chooses a line, everything that happens in that line until the next arrival only depends on the
+ * line itself, except for the time unit in which an idle clerk starts to attend the client that just arrived: the
+ * {@link EventEngine} processes the next time unit with an event, which is the earliest departure of any line or
+ * the next arrival. So the clerks are split in partitions of consecutive lines, and the partitions are advanced up
+ * to the next arrival time at the same time. Then the clients of that time unit choose their lines with the minimum
+ * of every partition, the earliest departure is taken from every partition, and the partitions go on.
+ *
+ * The services started in each partition are merged in the order the {@link EventEngine} would start them (by time
+ * unit and then by server) to count the clients overpassed, so the result is the same of {@link WaitingPolicy#process()}.
+ * Since the partitions wait for each other on every arrival time, the parallel steps only pay off when many
+ * lines have departures between two arrivals, which is why small configurations run in a single partition.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class ParallelLineEngine {
+
+	private static final int MIN_LINES = 1024;//lines per partition under which there is a single partition
+
+	private boolean balanced;//MLMSBWT, otherwise MLMS
+	private int serverNum;
+	private Trace trace;
+	private ForkJoinPool pool;
+	private Partition[] partitions;
+	private RunStatistics statistics;
+	private TraceSource order;//counts the clients overpassed from the services started, in order
+	private int time;//current time unit of the routing
+
+	/**
+	 * Constructor method.
+	 * @param policy name of the policy, "MLMS" or "MLMSBWT".
+	 * @param serverNum number of server posts.
+	 * @param trace {@link Trace} with the clients sorted by arrival time.
+	 * @param pool {@link ForkJoinPool} that advances the partitions, its parallelism is the maximum number of partitions.
+	 */
+	public ParallelLineEngine(String policy, int serverNum, Trace trace, ForkJoinPool pool) {
+		this(policy, serverNum, trace, pool, Math.max(1, Math.min(pool.getParallelism(), serverNum / MIN_LINES)));
+	}
+
+	/**
+	 * Constructor method.
+	 * @param policy name of the policy, "MLMS" or "MLMSBWT".
+	 * @param serverNum number of server posts.
+	 * @param trace {@link Trace} with the clients sorted by arrival time.
+	 * @param pool {@link ForkJoinPool} that advances the partitions.
+	 * @param count number of partitions, from 1 to the number of servers.
+	 */
+	public ParallelLineEngine(String policy, int serverNum, Trace trace, ForkJoinPool pool, int count) {
+		if(count < 1 || count > serverNum)
+			throw new IllegalArgumentException("There must be from 1 to " + serverNum + " partitions.");
+		if(!policy.equals("MLMS") && !policy.equals("MLMSBWT"))
+			throw new IllegalArgumentException("Policy " + policy + " does not keep its lines apart.");
+		this.balanced = policy.equals("MLMSBWT");
+		this.serverNum = serverNum;
+		this.trace = trace;
+		this.pool = pool;
+		this.partitions = new Partition[count];
+		for(int i=0; i<count; i++) {
+			int first = (int) ((long) serverNum * i / count);
+			partitions[i] = new Partition(first, (int) ((long) serverNum * (i + 1) / count) - first);
+		}
+	}
+
+	/**
+	 * Lines of consecutive clerks, simulated apart from the others between two arrival times.
+	 */
+	private class Partition {
+		private int first;//index of its first line
+		private IntDeque[] lines;
+		private boolean[] busy;
+		private long[] lineServiceTime;//sum of the service times of the persons in line, only for MLMSBWT
+		private long[] completed;//services completed, only for MLMSBWT
+		private int[] departureTime;
+		private MinIndexTree shortestLine;//line lengths, only for MLMS
+		private MinIndexTree busyLines;//finish time of busy lines, only for MLMSBWT
+		private MinIndexTree idleLines;//total waiting time of idle lines, only for MLMSBWT
+		private EventCalendar calendar;//departures
+		private IntDeque starting;//idle lines that received clients in the last arrival time
+		private int startTime;//time unit in which they start to be attended
+		private int[] attending;//lines that attend a client in the current time unit
+		private int[] started;//time unit, line and client of every service started since the last arrival time
+		private int startedCount;
+		private long attended;//clients attended
+		private int lastDeparture;
+		private RunStatistics statistics;
+
+		private Partition(int first, int size) {
+			this.first = first;
+			lines = new IntDeque[size];
+			for(int i=0; i<size; i++)
+				lines[i] = new IntDeque();
+			busy = new boolean[size];
+			departureTime = new int[size];
+			if(balanced) {
+				lineServiceTime = new long[size];
+				completed = new long[size];
+				busyLines = new MinIndexTree(size, Long.MAX_VALUE);
+				idleLines = new MinIndexTree(size);
+			}
+			else
+				shortestLine = new MinIndexTree(size);
+			calendar = new EventCalendar(size + 1);
+			starting = new IntDeque();
+			attending = new int[size];
+			started = new int[48];
+			startedCount = 0;
+			attended = 0;
+			lastDeparture = -1;
+			statistics = new RunStatistics();
+		}
+
+		/**
+		 * Moves the key of a line of {@link MLMSBWT} to the tree that corresponds to the current state of its clerk.
+		 */
+		private void updateLine(int line) {
+			if(busy[line]) {
+				idleLines.update(line, Long.MAX_VALUE);
+				busyLines.update(line, completed[line] + lineServiceTime[line] + departureTime[line]);
+			}
+			else {
+				busyLines.update(line, Long.MAX_VALUE);
+				idleLines.update(line, completed[line] + lineServiceTime[line]);
+			}
+		}
+
+		/**
+		 * A client arrives to a line of the partition.
+		 */
+		private void arrive(int line, int client) {
+			lines[line].enqueue(client);
+			if(balanced) {
+				lineServiceTime[line] += trace.getServiceTime(client);
+				updateLine(line);
+			}
+			else
+				shortestLine.update(line, lines[line].size());
+			if(!busy[line] && lines[line].size() == 1)
+				starting.enqueue(line);
+		}
+
+		/**
+		 * @return time unit of the next departure of the partition, Integer.MAX_VALUE if every clerk is idle.
+		 */
+		private int nextDeparture() {
+			return calendar.isEmpty() ? Integer.MAX_VALUE : calendar.nextTime();
+		}
+
+		/**
+		 * Processes every time unit of the partition up to the given one, the departures and the services started
+		 * in each of them, as the {@link EventEngine} does.
+		 * @param until last time unit to be processed.
+		 */
+		private Partition advance(int until) {
+			startedCount = 0;
+			while(true) {
+				int t = nextDeparture();
+				if(!starting.isEmpty())
+					t = Math.min(t, startTime);
+				if(t > until || t == Integer.MAX_VALUE)
+					return this;
+
+				int count = 0;
+				while(!calendar.isEmpty() && calendar.nextTime() == t) {
+					int line = calendar.nextPayload();
+					calendar.removeNext();
+					busy[line] = false;
+					if(balanced) {
+						completed[line]++;
+						updateLine(line);
+					}
+					if(!lines[line].isEmpty())
+						attending[count++] = line;
+				}
+				if(t == startTime) {
+					while(!starting.isEmpty())
+						attending[count++] = starting.dequeueInt();
+				}
+				Arrays.sort(attending, 0, count);//idle clerks attend from min to max index
+				for(int i=0; i<count; i++)
+					start(attending[i], t);
+			}
+		}
+
+		/**
+		 * The clerk of a line starts to attend the first person of its line.
+		 */
+		private void start(int line, int t) {
+			int client = lines[line].dequeueInt();
+			int service = trace.getServiceTime(client);
+			busy[line] = true;
+			departureTime[line] = t + service;
+			if(balanced) {
+				lineServiceTime[line] -= service;
+				updateLine(line);
+			}
+			else
+				shortestLine.update(line, lines[line].size());
+			calendar.schedule(t + service, EventCalendar.DEPARTURE, line);
+			lastDeparture = Math.max(lastDeparture, t + service);
+			statistics.attended(t - trace.getArrivalTime(client), service);
+			attended++;
+			if(startedCount + 3 > started.length)
+				started = Arrays.copyOf(started, 2 * started.length);
+			started[startedCount++] = t;
+			started[startedCount++] = first + line;
+			started[startedCount++] = client;
+		}
+	}
+
+	/**
+	 * Advances every partition up to the given time unit, in parallel when there are several.
+	 */
+	private void advance(int until) {
+		if(partitions.length == 1) {
+			partitions[0].advance(until);
+			return;
+		}
+		ArrayList<Callable<Partition>> tasks = new ArrayList<Callable<Partition>>();
+		for(Partition partition : partitions)
+			tasks.add(() -> partition.advance(until));
+		try {
+			for(Future<Partition> future : pool.invokeAll(tasks))
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while advancing the partitions.", e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Counts the clients overpassed by the services started in the last advance, taken in the order
+	 * of the {@link EventEngine}: by time unit and then by server. The partitions hold consecutive
+	 * servers, so their lists are merged by time unit and then by partition.
+	 */
+	private void countStarted() {
+		int[] next = new int[partitions.length];
+		while(true) {
+			int best = -1;
+			for(int p=0; p<partitions.length; p++) {
+				if(next[p] < partitions[p].startedCount
+						&& (best == -1 || partitions[p].started[next[p]] < partitions[best].started[next[best]]))
+					best = p;
+			}
+			if(best == -1)
+				return;
+			int[] started = partitions[best].started;
+			order.started(started[next[best] + 2], started[next[best]]);
+			next[best] += 3;
+		}
+	}
+
+	/**
+	 * @return index of the line chosen by a client that arrives now.
+	 */
+	private int route() {
+		if(!balanced) {
+			int index = -1;
+			long min = Long.MAX_VALUE;
+			for(Partition partition : partitions) {
+				if(index == -1 || partition.shortestLine.minValue() < min) {//ties are won by the lowest index
+					min = partition.shortestLine.minValue();
+					index = partition.first + partition.shortestLine.minIndex();
+				}
+			}
+			return index;
+		}
+		int index = -1, busy = -1;
+		long min = Long.MAX_VALUE, busyValue = Long.MAX_VALUE;
+		for(Partition partition : partitions) {
+			if(index == -1 || partition.idleLines.minValue() < min) {
+				min = partition.idleLines.minValue();
+				index = partition.first + partition.idleLines.minIndex();
+			}
+			if(busy == -1 || partition.busyLines.minValue() < busyValue) {
+				busyValue = partition.busyLines.minValue();
+				busy = partition.first + partition.busyLines.minIndex();
+			}
+		}
+		if(busyValue != Long.MAX_VALUE) {
+			long busyMin = busyValue - time;
+			if(busyMin < min || (busyMin == min && busy < index))
+				index = busy;
+		}
+		return index;
+	}
+
+	/**
+	 * @param line global index of a line.
+	 * @return {@link Partition} that holds the line.
+	 */
+	private Partition partitionOf(int line) {
+		int p = (int) (((long) line * partitions.length + partitions.length - 1) / serverNum);
+		while(p > 0 && partitions[p].first > line)
+			p--;
+		while(p + 1 < partitions.length && partitions[p + 1].first <= line)
+			p++;
+		return partitions[p];
+	}
+
+	/**
+	 * Runs the simulation until every client has been attended. Traces that are not sorted by arrival time
+	 * are simulated by the usual {@link EventEngine}.
+	 * @return String with calculated statistics, the same of {@link WaitingPolicy#process()}.
+	 */
+	public String run() {
+		String name = balanced ? "MLMSBWT" : "MLMS";
+		for(int i=1; i<trace.size(); i++) {
+			if(trace.getArrivalTime(i) < trace.getArrivalTime(i - 1))
+				return WaitingPolicy.create(name, serverNum, trace).process();
+		}
+		statistics = new RunStatistics();
+		order = new TraceSource(trace);
+		long admitted = 0;
+		int next = 0;
+		while(next < trace.size()) {
+			time = trace.getArrivalTime(next);
+			advance(time);
+			countStarted();
+			long started = 0;
+			for(Partition partition : partitions)
+				started += partition.attended;
+			while(next < trace.size() && trace.getArrivalTime(next) == time) {
+				statistics.arrived((int) (admitted - started));
+				int line = route();
+				Partition partition = partitionOf(line);
+				partition.arrive(line - partition.first, next);
+				admitted++;
+				next++;
+			}
+			int startTime = (next < trace.size()) ? trace.getArrivalTime(next) : time + 1;//the clock stops at the next event
+			for(Partition partition : partitions)
+				startTime = Math.min(startTime, partition.nextDeparture());
+			for(Partition partition : partitions)
+				partition.startTime = startTime;
+		}
+		advance(Integer.MAX_VALUE - 1);
+		countStarted();
+
+		int end = 0;//time unit after the last one processed
+		for(Partition partition : partitions) {
+			statistics.add(partition.statistics);
+			end = Math.max(end, partition.lastDeparture + 1);
+		}
+		return EventEngine.result(name, serverNum, end, statistics, order.getOverpassingClients());
+	}
+
+	/**
+	 * @return {@link RunStatistics} of the simulation, after {@link #run()}.
+	 */
+	public RunStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return number of partitions of the clerks.
+	 */
+	public int getPartitions() {
+		return partitions.length;
+	}
+}
@@ -0,0 +1,34 @@
+package policies;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a whole run of a policy, see {@link EventEngine#run()}. Its duration is the time of the
+ * run, so it can be matched with the GC pauses and CPU samples of the same recording.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+@Name("bestwaitingpolicy.PolicyRun")
+@Label("Policy Run")
+@Category({"Best Waiting Policy", "Simulation"})
+@Description("Simulation of a waiting policy over the clients of a file")
+class PolicyRunEvent extends Event {
+
+	@Label("Policy")
+	String policy;
+
+	@Label("Servers")
+	int servers;
+
+	@Label("Clients")
+	long clients;
+
+	@Label("Streaming")
+	@Description("The clients were read from the file while the policy ran")
+	boolean streaming;
+}
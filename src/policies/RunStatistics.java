@@ -0,0 +1,101 @@
+package policies;
+
+import useful_classes.LogHistogram;
+
+/**
+ * Statistics of a simulation kept in constant memory, whatever the number of clients.
+ *
+ * The waiting times are summed in a long, so the average is exact, and the waiting times, the lengths of
+ * the lines seen by the clients that arrive and the sojourn times (waiting plus service) are recorded in
+ * {@link LogHistogram}s to report their percentiles.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class RunStatistics {
+
+	private long clients;//clients attended
+	private long waitSum;
+	private LogHistogram wait;
+	private LogHistogram queueLength;
+	private LogHistogram sojourn;
+
+	public RunStatistics() {
+		clients = 0;
+		waitSum = 0;
+		wait = new LogHistogram();
+		queueLength = new LogHistogram();
+		sojourn = new LogHistogram();
+	}
+
+	/**
+	 * Records a client that arrived.
+	 * @param waiting number of clients in line when the client arrived.
+	 */
+	public void arrived(int waiting) {
+		queueLength.record(waiting);
+	}
+
+	/**
+	 * Records a client that starts its service.
+	 * @param waitingTime time the client waited in line.
+	 * @param serviceTime service time of the client.
+	 */
+	public void attended(int waitingTime, int serviceTime) {
+		clients++;
+		waitSum += waitingTime;
+		wait.record(waitingTime);
+		sojourn.record((long) waitingTime + serviceTime);
+	}
+
+	/**
+	 * Adds the statistics of another simulation, e.g. of another part of the same trace.
+	 * @param other {@link RunStatistics} to be added.
+	 */
+	public void add(RunStatistics other) {
+		clients += other.clients;
+		waitSum += other.waitSum;
+		wait.add(other.wait);
+		queueLength.add(other.queueLength);
+		sojourn.add(other.sojourn);
+	}
+
+	public long getClients() {
+		return clients;
+	}
+
+	public long getWaitSum() {
+		return waitSum;
+	}
+
+	/**
+	 * @return average waiting time per client, NaN if no client was attended.
+	 */
+	public double getAverageWait() {
+		return (double) waitSum / clients;
+	}
+
+	public LogHistogram getWait() {
+		return wait;
+	}
+
+	public LogHistogram getQueueLength() {
+		return queueLength;
+	}
+
+	public LogHistogram getSojourn() {
+		return sojourn;
+	}
+
+	private static String percentiles(String name, LogHistogram histogram) {
+		return name + " " + histogram.getPercentile(50) + "/" + histogram.getPercentile(90) + "/"
+				+ histogram.getPercentile(99) + "/" + histogram.getMax();
+	}
+
+	/**
+	 * @return p50/p90/p99/max of the waiting times, the lengths of the lines and the sojourn times.
+	 */
+	public String toString() {
+		return percentiles("wait", wait) + " " + percentiles("queue", queueLength) + " " + percentiles("sojourn", sojourn);
+	}
+}
@@ -0,0 +1,221 @@
+package policies;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import dataManagement.Trace;
+import useful_classes.EventCalendar;
+import useful_classes.MinIndexTree;
+
+/**
+ * Simulation of a single {@link Trace} split in segments that are simulated at the same time.
+ *
+ * Once every line is empty and every server is idle, a regenerative policy (see {@link WaitingPolicy#isRegenerative()})
+ * is in its initial state again, so the clients that arrive from then on can be simulated apart. A pre-pass that
+ * serves the clients first come, first served guesses where this happens for the number of servers, and the trace
+ * is split at some of those points into segments of similar length, which are simulated in a {@link ForkJoinPool}.
+ *
+ * Every segment but the last one is simulated up to the arrival of the first client of the next segment, as it
+ * would be in the whole trace, and is valid if the system is empty by then. Every segment that is not valid is
+ * joined with the next one, and the joined segments are simulated again at the same time, until every segment is
+ * valid. The statistics of the valid segments are merged, so the result is always the same of a single simulation
+ * of the whole trace.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class SegmentedSimulation {
+
+	private String policy;
+	private int serverNum;
+	private Trace trace;
+	private RunStatistics statistics;
+	private long overpassClients;
+	private int resimulated;//segments simulated again because their split was not valid
+
+	/**
+	 * Constructor method.
+	 * @param policy name of the policy, one of {@link WaitingPolicy#NAMES}.
+	 * @param serverNum number of server posts.
+	 * @param trace {@link Trace} with the clients sorted by arrival time.
+	 */
+	public SegmentedSimulation(String policy, int serverNum, Trace trace) {
+		this.policy = policy;
+		this.serverNum = serverNum;
+		this.trace = trace;
+	}
+
+	/**
+	 * Simulation of the clients of a range of the trace.
+	 */
+	private class Segment {
+		private int from;//position of the first client
+		private int to;//position after the last client
+		private int time;//time unit in which the simulation finished
+		private boolean valid;//the system was empty when the next segment started
+		private RunStatistics statistics;
+		private long overpassClients;
+
+		private Segment(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		private Segment run() {
+			Trace clients = (from == 0 && to == trace.size()) ? trace : trace.segment(from, to);//the whole trace is not copied
+			WaitingPolicy simulation = WaitingPolicy.create(policy, serverNum, clients);
+			if(to < trace.size())
+				valid = simulation.processUntil(trace.getArrivalTime(to));
+			else {
+				simulation.process();
+				valid = true;
+			}
+			EventEngine engine = simulation.getEngine();
+			time = engine.getTime();
+			statistics = engine.getStatistics();
+			overpassClients = engine.getOverpassingClients();
+			return this;
+		}
+	}
+
+	/**
+	 * Pre-pass that finds where the trace can be split. The clients are served first come, first served by the
+	 * servers, and a client arriving after every previous client would have left starts a new segment. As in the
+	 * {@link EventEngine}, the clients that arrive in a time unit can only start their service in the next time unit
+	 * that the engine processes: the next arrival or departure, one time unit later at the earliest, or when a server
+	 * becomes free. Only the positions that leave at least the given number of clients in the previous segment are
+	 * taken. A trace that is not sorted by arrival time is never split.
+	 * @param minLength minimum number of clients of a segment, but the last one.
+	 * @return positions of the first client of every segment, starting with 0.
+	 */
+	public int[] findSplits(int minLength) {
+		ArrayList<Integer> splits = new ArrayList<Integer>();
+		if(trace.size() == 0)
+			return new int[0];
+		splits.add(0);
+		MinIndexTree free = new MinIndexTree(serverNum);//time in which every server is free
+		EventCalendar departures = new EventCalendar(serverNum + 1);//of the clients in service, the events of the engine
+		long lastDeparture = 0;
+		int last = 0;//first client of the current segment
+		int i = 0;
+		while(i < trace.size()) {
+			int arrival = trace.getArrivalTime(i);
+			if(i > 0 && arrival < trace.getArrivalTime(i - 1))
+				return new int[] {0};
+			if(i > 0 && arrival >= lastDeparture && i - last >= minLength) {
+				splits.add(i);
+				last = i;
+			}
+			int end = i;//first client that arrives later
+			while(end < trace.size() && trace.getArrivalTime(end) == arrival)
+				end++;
+			while(!departures.isEmpty() && departures.nextTime() <= arrival)
+				departures.removeNext();
+			long next = (end < trace.size()) ? trace.getArrivalTime(end) : arrival + 1L;//next time unit processed by the engine
+			if(!departures.isEmpty())
+				next = Math.min(next, departures.nextTime());
+			next = Math.max(arrival + 1L, next);
+			for(; i<end; i++) {
+				int server = free.minIndex();
+				long departure = Math.max(next, free.minValue()) + trace.getServiceTime(i);
+				free.update(server, departure);
+				departures.schedule((int) departure, EventCalendar.DEPARTURE, 0);
+				lastDeparture = Math.max(lastDeparture, departure);
+			}
+		}
+		int[] result = new int[splits.size()];
+		for(int k=0; k<result.length; k++)
+			result[k] = splits.get(k);
+		return result;
+	}
+
+	/**
+	 * Runs the simulation in segments of about the same number of clients. Policies that are not
+	 * regenerative are simulated as a single segment.
+	 * @param pool {@link ForkJoinPool} that runs the segments.
+	 * @param segments number of segments wanted.
+	 * @return String with calculated statistics, the same of {@link WaitingPolicy#process()}.
+	 * @throws InterruptedException if the thread is interrupted while waiting for the segments.
+	 */
+	public String process(ForkJoinPool pool, int segments) throws InterruptedException {
+		int[] splits = {0};
+		if(segments > 1 && trace.size() > 0 && WaitingPolicy.create(policy, serverNum, null).isRegenerative())
+			splits = findSplits(Math.max(1, trace.size() / segments));
+
+		ArrayList<Future<Segment>> futures = new ArrayList<Future<Segment>>();
+		for(int i=0; i<splits.length; i++) {
+			Segment segment = new Segment(splits[i], (i + 1 < splits.length) ? splits[i + 1] : trace.size());
+			futures.add(pool.submit(() -> segment.run()));
+		}
+
+		ArrayList<Segment> done = new ArrayList<Segment>();
+		for(Future<Segment> future : futures)
+			done.add(get(future));
+
+		resimulated = 0;
+		while(true) {
+			ArrayList<Segment> joined = new ArrayList<Segment>();//segments that are valid or simulated again
+			ArrayList<Future<Segment>> again = new ArrayList<Future<Segment>>();//null for the valid ones
+			int i = 0;
+			while(i < done.size()) {
+				int j = i;
+				while(j + 1 < done.size() && !done.get(j).valid)
+					j++;//joined with the next one
+				if(j == i) {
+					joined.add(done.get(i));
+					again.add(null);
+				} else {
+					Segment segment = new Segment(done.get(i).from, done.get(j).to);
+					joined.add(segment);
+					again.add(pool.submit(() -> segment.run()));
+					resimulated++;
+				}
+				i = j + 1;
+			}
+			if(joined.size() == done.size())
+				break;
+			for(int k=0; k<again.size(); k++) {
+				if(again.get(k) != null)
+					joined.set(k, get(again.get(k)));
+			}
+			done = joined;
+		}
+
+		statistics = new RunStatistics();
+		overpassClients = 0;
+		for(Segment segment : done)
+			merge(segment);
+		return EventEngine.result(policy, serverNum, done.get(done.size() - 1).time, statistics, overpassClients);
+	}
+
+	private Segment get(Future<Segment> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private void merge(Segment segment) {
+		statistics.add(segment.statistics);
+		overpassClients += segment.overpassClients;
+	}
+
+	/**
+	 * @return {@link RunStatistics} of the whole trace, after {@link #process(ForkJoinPool, int)}.
+	 */
+	public RunStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return number of joined segments simulated again because a split found by the pre-pass was not valid.
+	 */
+	public int getResimulated() {
+		return resimulated;
+	}
+}
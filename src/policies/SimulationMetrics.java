@@ -0,0 +1,179 @@
+package policies;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counters of what the {@link EventEngine} did during the runs of a policy, to see why a trace is slow.
+ *
+ * The engine only fills them when the policy has been given a metrics object, see {@link WaitingPolicy#setMetrics(SimulationMetrics)}.
+ * Otherwise it runs its usual loop, which does not measure anything. The time of every phase of a time unit is
+ * taken with {@link System#nanoTime()}, so a metered run is somewhat slower than a normal one.
+ * The counters of several runs with the same metrics object are added.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class SimulationMetrics {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private long ticks;//time units processed
+	private long skippedTicks;//time units jumped over by the clock
+	private long arrivals;
+	private long departures;
+	private long transfers;//clients moved between lines by the policy
+	private int peakLineLength;//most clients waiting in a single line
+	private long completedNanos;//time spent in each phase of a time unit
+	private long monitorNanos;
+	private long attendedNanos;
+	private long arrivalNanos;
+	private int runs;//runs done in a single thread, see EventEngine.run()
+	private long runNanos;//time of those runs
+	private long allocatedBytes;//heap allocated by those runs, -1 if it could not be measured
+
+	/**
+	 * Called after a time unit has been processed.
+	 * @param departures services completed in the time unit.
+	 * @param arrivals clients that arrived in the time unit.
+	 * @param skipped time units skipped afterwards.
+	 * @param completedNanos time spent releasing the completed services.
+	 * @param monitorNanos time spent by the policy before attending, e.g. the line monitor of {@link MLMSBLL}.
+	 * @param attendedNanos time spent attending the clients waiting.
+	 * @param arrivalNanos time spent letting the clients arrive.
+	 */
+	void tick(int departures, int arrivals, int skipped, long completedNanos, long monitorNanos, long attendedNanos, long arrivalNanos) {
+		this.ticks++;
+		this.departures += departures;
+		this.arrivals += arrivals;
+		this.skippedTicks += skipped;
+		this.completedNanos += completedNanos;
+		this.monitorNanos += monitorNanos;
+		this.attendedNanos += attendedNanos;
+		this.arrivalNanos += arrivalNanos;
+	}
+
+	/**
+	 * Called whenever a client joins a line.
+	 * @param length of the line, counting the client.
+	 */
+	void lineLength(int length) {
+		if(length > peakLineLength)
+			peakLineLength = length;
+	}
+
+	/**
+	 * Called when a run is over.
+	 * @param nanos time of the run.
+	 * @param allocatedBytes heap allocated by the run, -1 if it could not be measured.
+	 */
+	void finished(long nanos, long allocatedBytes) {
+		runs++;
+		runNanos += nanos;
+		if(allocatedBytes < 0 || this.allocatedBytes < 0)
+			this.allocatedBytes = -1;
+		else
+			this.allocatedBytes += allocatedBytes;
+	}
+
+	/**
+	 * Called when the result of a run is asked for.
+	 * @param transfers done by the policy in the run.
+	 */
+	void addTransfers(long transfers) {
+		this.transfers += transfers;
+	}
+
+	/**
+	 * Also used by {@link dataManagement.ScalabilityHarness}.
+	 * @return bytes allocated by the current thread so far, -1 if the JVM does not measure it.
+	 */
+	public static long allocatedBytes() {
+		if(THREADS instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) THREADS;
+			if(sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled())
+				return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	public long getSkippedTicks() {
+		return skippedTicks;
+	}
+
+	public long getArrivals() {
+		return arrivals;
+	}
+
+	public long getDepartures() {
+		return departures;
+	}
+
+	/**
+	 * @return number of events processed, arrivals plus departures.
+	 */
+	public long getEvents() {
+		return arrivals + departures;
+	}
+
+	public long getTransfers() {
+		return transfers;
+	}
+
+	public int getPeakLineLength() {
+		return peakLineLength;
+	}
+
+	public long getCompletedNanos() {
+		return completedNanos;
+	}
+
+	public long getMonitorNanos() {
+		return monitorNanos;
+	}
+
+	public long getAttendedNanos() {
+		return attendedNanos;
+	}
+
+	public long getArrivalNanos() {
+		return arrivalNanos;
+	}
+
+	/**
+	 * Runs advanced by several threads, as in {@link FusedSimulation}, are not timed as a whole.
+	 * @return time of the runs done in a single thread.
+	 */
+	public long getRunNanos() {
+		return runNanos;
+	}
+
+	/**
+	 * Only runs done in a single thread are measured, see {@link EventEngine#run()}.
+	 * @return bytes allocated in the heap by the runs, -1 if they could not be measured or there were none.
+	 */
+	public long getAllocatedBytes() {
+		if(runs == 0)
+			return -1;
+		return allocatedBytes;
+	}
+
+	private static String millis(long nanos) {
+		return String.format("%.3fms", nanos / 1e6);
+	}
+
+	/**
+	 * @return the counters in a single line, as written to the metrics files.
+	 */
+	@Override
+	public String toString() {
+		return "ticks " + ticks + " skipped " + skippedTicks + " events " + getEvents() + " transfers " + transfers
+				+ " peakLine " + peakLineLength + " checkCompleted " + millis(completedNanos) + " lineMonitor " + millis(monitorNanos)
+				+ " getAttended " + millis(attendedNanos) + " checkArrival " + millis(arrivalNanos) + " run " + millis(runNanos)
+				+ " allocated " + ((getAllocatedBytes() < 0) ? "n/a" : getAllocatedBytes() + "B");
+	}
+}
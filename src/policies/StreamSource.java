@@ -0,0 +1,153 @@
+package policies;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import dataManagement.TraceCursor;
+import useful_classes.SlidingFenwickTree;
+
+/**
+ * Source of the clients of a {@link TraceCursor}, which are read while the simulation runs.
+ *
+ * Only the clients in the system are kept: every client that arrives takes a free slot, which is
+ * released when the client leaves. The clients must come sorted by arrival time. In that case, when a
+ * client starts its service, the clients it overpasses are exactly those still waiting that arrived
+ * strictly earlier, so they are counted online with a {@link SlidingFenwickTree} over the positions of the
+ * clients waiting.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+class StreamSource extends ClientSource {
+
+	private TraceCursor cursor;
+	private boolean hasNext;//the next client has been read
+	private int position;//position in the file of the next client
+	private int lastArrival;//arrival time of the last client read
+	private int firstOfLastArrival;//position of the first client with the arrival time of the last client that arrived
+	private int[] arrival;//by slot
+	private int[] service;
+	private int[] id;//position in the file
+	private int[] firstOfArrival;//position of the first client with the same arrival time
+	private int[] free;//slots released
+	private int freeCount;
+	private int slots;//slots used at some moment
+	private SlidingFenwickTree waitingPositions;
+	private long overpassClients;
+
+	/**
+	 * Constructor method. Reads the first client.
+	 * @param cursor {@link TraceCursor} over the clients, sorted by arrival time.
+	 * @throws IOException if the file cannot be read.
+	 */
+	StreamSource(TraceCursor cursor) throws IOException {
+		this.cursor = cursor;
+		this.position = 0;
+		this.lastArrival = 0;
+		this.firstOfLastArrival = 0;
+		this.arrival = new int[16];
+		this.service = new int[16];
+		this.id = new int[16];
+		this.firstOfArrival = new int[16];
+		this.free = new int[16];
+		this.freeCount = 0;
+		this.slots = 0;
+		this.waitingPositions = new SlidingFenwickTree();
+		this.overpassClients = 0;
+		this.hasNext = cursor.next();
+	}
+
+	/**
+	 * Reads the next client of the cursor.
+	 */
+	private void readNext() {
+		try {
+			int previous = cursor.getArrivalTime();
+			hasNext = cursor.next();
+			if(hasNext && cursor.getArrivalTime() < previous)
+				throw new UnsortedTraceException();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	boolean hasNext() {
+		return hasNext;
+	}
+
+	@Override
+	int nextArrivalTime() {
+		return cursor.getArrivalTime();
+	}
+
+	@Override
+	int admit() {
+		int slot;
+		if(freeCount > 0)
+			slot = free[--freeCount];
+		else {
+			if(slots == arrival.length) {
+				arrival = Arrays.copyOf(arrival, 2 * slots);
+				service = Arrays.copyOf(service, 2 * slots);
+				id = Arrays.copyOf(id, 2 * slots);
+				firstOfArrival = Arrays.copyOf(firstOfArrival, 2 * slots);
+				free = Arrays.copyOf(free, 2 * slots);
+			}
+			slot = slots++;
+		}
+		int arrivalTime = cursor.getArrivalTime();
+		if(position == 0 || arrivalTime != lastArrival)
+			firstOfLastArrival = position;
+		lastArrival = arrivalTime;
+		arrival[slot] = arrivalTime;
+		service[slot] = cursor.getServiceTime();
+		id[slot] = position;
+		firstOfArrival[slot] = firstOfLastArrival;
+		waitingPositions.add(position, 1);
+		position++;
+		readNext();
+		return slot;
+	}
+
+	@Override
+	int getArrivalTime(int client) {
+		return arrival[client];
+	}
+
+	@Override
+	int getServiceTime(int client) {
+		return service[client];
+	}
+
+	@Override
+	int getId(int client) {
+		return id[client];
+	}
+
+	/**
+	 * The client overpasses every client waiting that arrived strictly earlier, that is, every client
+	 * waiting before the first client with its same arrival time.
+	 */
+	@Override
+	void started(int client, int time) {
+		overpassClients += waitingPositions.countBelow(firstOfArrival[client]);
+		waitingPositions.add(id[client], -1);
+	}
+
+	@Override
+	void completed(int client) {
+		free[freeCount++] = client;
+	}
+
+	@Override
+	long getOverpassingClients() {
+		return overpassClients;
+	}
+
+	@Override
+	boolean hasBadFormat() {
+		return cursor.hasBadFormat();
+	}
+}
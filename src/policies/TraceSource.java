@@ -0,0 +1,97 @@
+package policies;
+
+import java.util.Arrays;
+
+import dataManagement.Trace;
+import useful_classes.FenwickTree;
+
+/**
+ * Source of the clients of a {@link Trace} that is in memory. A client is identified by its position
+ * in the trace.
+ *
+ * The clients overpassed are counted as the clients start their service, with a {@link FenwickTree}
+ * over the ranks of the arrival times of the clients already attended. The ranks are taken from the sorted
+ * arrival times, so the count is right even if the trace is not sorted by arrival time.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+class TraceSource extends ClientSource {
+
+	private Trace trace;
+	private int nextArrival;//position of the next client to arrive
+	private int[] times;//different arrival times of the trace, sorted
+	private FenwickTree attendedRanks;//ranks of the arrival times of the clients attended
+	private long overpassClients;
+
+	TraceSource(Trace trace) {
+		this.trace = trace;
+		this.nextArrival = 0;
+		this.times = arrivalTimes(trace);
+		this.attendedRanks = new FenwickTree(times.length);
+		this.overpassClients = 0;
+	}
+
+	/**
+	 * @param trace {@link Trace} of the simulation.
+	 * @return different arrival times of the trace, sorted.
+	 */
+	private static int[] arrivalTimes(Trace trace) {
+		int[] times = new int[trace.size()];
+		for(int i=0; i<times.length; i++)
+			times[i] = trace.getArrivalTime(i);
+		Arrays.sort(times);
+		int size = 0;
+		for(int i=0; i<times.length; i++) {
+			if(size == 0 || times[i] != times[size - 1])
+				times[size++] = times[i];
+		}
+		return Arrays.copyOf(times, size);
+	}
+
+	@Override
+	boolean hasNext() {
+		return nextArrival < trace.size();
+	}
+
+	@Override
+	int nextArrivalTime() {
+		return trace.getArrivalTime(nextArrival);
+	}
+
+	@Override
+	int admit() {
+		return nextArrival++;
+	}
+
+	@Override
+	int getArrivalTime(int client) {
+		return trace.getArrivalTime(client);
+	}
+
+	@Override
+	int getServiceTime(int client) {
+		return trace.getServiceTime(client);
+	}
+
+	@Override
+	int getId(int client) {
+		return trace.getId(client);
+	}
+
+	/**
+	 * The client overpasses every client attended before it that arrived later, that is, every client
+	 * attended whose arrival time has a greater rank.
+	 */
+	@Override
+	void started(int client, int time) {
+		int rank = Arrays.binarySearch(times, trace.getArrivalTime(client));
+		overpassClients += attendedRanks.getTotal() - attendedRanks.countBelow(rank + 1);
+		attendedRanks.add(rank, 1);
+	}
+
+	@Override
+	long getOverpassingClients() {
+		return overpassClients;
+	}
+}
@@ -0,0 +1,17 @@
+package policies;
+
+/**
+ * Thrown when the clients read while a policy is processed are not sorted by arrival time, so the file has to
+ * be read into memory to be simulated, see {@link WaitingPolicy#process(dataManagement.TraceCursor)}.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class UnsortedTraceException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	public UnsortedTraceException() {
+		super("Clients must be sorted by arrival time to be simulated while they are read.");
+	}
+}
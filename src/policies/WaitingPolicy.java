@@ -0,0 +1,262 @@
+package policies;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import dataManagement.Client;
+import dataManagement.Trace;
+import dataManagement.TraceCursor;
+import useful_classes.BitIndexSet;
+import useful_classes.Queue;
+
+/**
+ * Base class of the waiting policies.
+ *
+ * A policy only supplies its routing rule (in which line an arriving client waits) and its
+ * dispatch rule (which client, if any, an available server attends next). The servers,
+ * the clock and the statistics are kept by the {@link EventEngine} that runs the policy.
+ * Clients are identified by their position in the {@link Trace}, or by a slot of the engine when
+ * they are read from a {@link TraceCursor}, so their data is always asked to the engine.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public abstract class WaitingPolicy {
+
+	/**
+	 * Names of the policies, in the order their results are written.
+	 */
+	public static final String[] NAMES = {"SLMS", "MLMS", "MLMSBLL", "MLMSBWT"};
+
+	protected int serverNum;
+	protected Trace trace;
+	private EventEngine engine;
+	private SimulationMetrics metrics;
+
+	/**
+	 * Constructor method.
+	 * @param serverNum number of server posts.
+	 * @param trace {@link Trace} read from a file. It is shared, not copied. Null if the clients are read while the policy is processed.
+	 */
+	public WaitingPolicy(int serverNum, Trace trace) {
+		this.serverNum = serverNum;
+		this.trace = trace;
+	}
+
+	/**
+	 * Constructor method.
+	 * @param serverNum number of server posts.
+	 * @param file {@link Queue} created from a file that has been read.
+	 */
+	public WaitingPolicy(int serverNum, Queue<Client> file) {
+		this(serverNum, new Trace(file));
+	}
+
+	/**
+	 * Creates a policy by its name.
+	 * @param name of the policy, one of {@link #NAMES}.
+	 * @param serverNum number of server posts.
+	 * @param trace {@link Trace} read from a file, null if the clients are read while the policy is processed.
+	 * @return new {@link WaitingPolicy} of the given name.
+	 */
+	public static WaitingPolicy create(String name, int serverNum, Trace trace) {
+		switch(name) {
+		case "SLMS":
+			return new SLMS(serverNum, trace);
+		case "MLMS":
+			return new MLMS(serverNum, trace);
+		case "MLMSBLL":
+			return new MLMSBLL(serverNum, trace);
+		case "MLMSBWT":
+			return new MLMSBWT(serverNum, trace);
+		default:
+			throw new IllegalArgumentException("Unknown policy " + name + ".");
+		}
+	}
+
+	/**
+	 * @return Name of the policy, used as the first word of the results.
+	 */
+	public abstract String getName();
+
+	/**
+	 * Helper method for when a client arrives, this will lead him into a line according to the policy.
+	 * @param client position of the client that arrived in the {@link Trace}.
+	 */
+	public abstract void arrive(int client);
+
+	/**
+	 * Removes the next client to be attended by an available server.
+	 * @param server index of the available server.
+	 * @return position of the client that starts its service, -1 if there is none waiting for this server.
+	 */
+	public abstract int nextClient(int server);
+
+	/**
+	 * Policies in which every server attends its own line keep the set of lines that have clients
+	 * waiting, so the engine only visits the available servers that have someone to attend.
+	 * @return {@link BitIndexSet} of the lines with clients waiting, null if the servers share their line.
+	 */
+	public BitIndexSet getWaitingLines() {
+		return null;
+	}
+
+	/**
+	 * Called when a server completes a service.
+	 * @param server index of the server that completed a service.
+	 */
+	public void serviceCompleted(int server) {}
+
+	/**
+	 * Called on every processed time unit after the completed services are released and
+	 * before the available servers attend the clients waiting.
+	 */
+	public void beforeAttending() {}
+
+	/**
+	 * Called when the clock skips time units in which there is nothing to be done.
+	 * @param n number of time units skipped.
+	 */
+	public void timeSkipped(int n) {}
+
+	/**
+	 * Boolean method to determine if the policy still has something to do in the next time unit
+	 * even when no client arrives nor completes a service.
+	 * @return True if the next time unit cannot be skipped, false otherwise.
+	 */
+	public boolean hasPendingWork() {
+		return false;
+	}
+
+	/**
+	 * Boolean method to determine if the policy is back to its initial state whenever every line is empty
+	 * and every server is idle, so the clients arriving afterwards can be simulated apart, see {@link SegmentedSimulation}.
+	 * @return True if nothing of the previous clients is remembered once the system is empty, false otherwise.
+	 */
+	public boolean isRegenerative() {
+		return true;
+	}
+
+	/**
+	 * Policies with a single line return its length.
+	 * @return length of the line the last client that arrived joined, counting it.
+	 */
+	public abstract int getArrivalLineLength();
+
+	/**
+	 * @return number of clients moved from a line to another one so far.
+	 */
+	public long getTransfers() {
+		return 0;
+	}
+
+	/**
+	 * @return {@link SimulationMetrics} filled by the runs of the policy, null if they are not measured.
+	 */
+	public SimulationMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Makes the next runs of the policy fill the given metrics. It must be set before the policy is processed.
+	 * @param metrics {@link SimulationMetrics} to be filled, null to stop measuring the runs.
+	 */
+	public void setMetrics(SimulationMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @param server index of the server.
+	 * @return True if the server is not attending a client, false otherwise.
+	 */
+	public boolean isAvailable(int server) {
+		return engine == null || engine.isAvailable(server);
+	}
+
+	public int getTime() {
+		if(engine == null)
+			return 0;
+		return engine.getTime();
+	}
+
+	public int getServerNum() {
+		return serverNum;
+	}
+
+	public Trace getTrace() {
+		return trace;
+	}
+
+	protected int getArrivalTime(int client) {
+		return engine.getArrivalTime(client);
+	}
+
+	protected int getServiceTime(int client) {
+		return engine.getServiceTime(client);
+	}
+
+	/**
+	 * @param client that arrived.
+	 * @return id of the client, used to determine order of inputs inside a file.
+	 */
+	protected int getId(int client) {
+		return engine.getId(client);
+	}
+
+	/**
+	 * @return {@link EventEngine} of the last run, null if the policy has not been processed.
+	 */
+	public EventEngine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Method used to process the data according to the waiting policy.
+	 * @return String with calculated statistics.
+	 */
+	public String process() {
+		if(trace == null)
+			throw new IllegalStateException("The policy has no trace, use process(TraceCursor).");
+		engine = new EventEngine(this, trace);
+		return engine.run();
+	}
+
+	/**
+	 * Processes the data of the trace as if it went on with a client arriving at the given time, and stops
+	 * before that client arrives, see {@link SegmentedSimulation}.
+	 * @param horizon arrival time of the next client, greater than the arrival time of every client of the trace.
+	 * @return True if the system was empty when the next client would arrive, false otherwise.
+	 */
+	boolean processUntil(int horizon) {
+		engine = new EventEngine(this, trace);
+		return engine.runUntil(horizon);
+	}
+
+	/**
+	 * Prepares the policy to be processed while the clients are read from a file, without running it.
+	 * @param cursor {@link TraceCursor} over the clients, sorted by arrival time.
+	 * @return {@link EventEngine} of the policy, to be run by the caller.
+	 * @throws IOException if the file cannot be read.
+	 */
+	EventEngine attach(TraceCursor cursor) throws IOException {
+		engine = new EventEngine(this, cursor);
+		return engine;
+	}
+
+	/**
+	 * Method used to process the data according to the waiting policy while the clients are read from a file.
+	 * Only the clients in the system are kept in memory.
+	 * @param cursor {@link TraceCursor} over the clients, sorted by arrival time. It is not closed.
+	 * @return String with calculated statistics, null if the file does not meet the expected format.
+	 * @throws IOException if the file cannot be read.
+	 * @throws UnsortedTraceException if the clients are not sorted by arrival time.
+	 */
+	public String process(TraceCursor cursor) throws IOException {
+		try {
+			engine = new EventEngine(this, cursor);
+			return engine.run();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+}
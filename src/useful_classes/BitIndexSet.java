@@ -0,0 +1,119 @@
+package useful_classes;
+
+/**
+ * Set of indexes between 0 and {@code capacity - 1} stored as a bitmap, one bit per index.
+ *
+ * Adding, removing and testing an index is O(1). The lowest index in the set from a given position,
+ * alone or in common with another set, is found one 64-bit word at a time, so scanning thousands of
+ * servers only takes a few word operations.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class BitIndexSet {
+
+	private long[] words;
+	private int capacity;
+	private int size;
+
+	/**
+	 * Constructor method.
+	 * @param capacity number of indexes the set can hold, from 0 to {@code capacity - 1}.
+	 * @param full if true every index starts in the set, otherwise the set starts empty.
+	 */
+	public BitIndexSet(int capacity, boolean full) {
+		this.capacity = capacity;
+		this.words = new long[(capacity + 63) >>> 6];
+		this.size = 0;
+		if(full) {
+			for(int i=0; i<words.length; i++)
+				words[i] = -1L;
+			if((capacity & 63) != 0)
+				words[words.length - 1] = (1L << capacity) - 1;//only the bits of the last word that are used
+			size = capacity;
+		}
+	}
+
+	public BitIndexSet(int capacity) {
+		this(capacity, false);
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean contains(int index) {
+		return (words[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Adds an index to the set. It has no effect if the index is already in the set.
+	 * @param index between 0 and {@code capacity - 1}.
+	 */
+	public void add(int index) {
+		long word = words[index >>> 6];
+		long bit = 1L << index;
+		if((word & bit) == 0) {
+			words[index >>> 6] = word | bit;
+			size++;
+		}
+	}
+
+	/**
+	 * Removes an index from the set. It has no effect if the index is not in the set.
+	 * @param index between 0 and {@code capacity - 1}.
+	 */
+	public void remove(int index) {
+		long word = words[index >>> 6];
+		long bit = 1L << index;
+		if((word & bit) != 0) {
+			words[index >>> 6] = word & ~bit;
+			size--;
+		}
+	}
+
+	/**
+	 * @param from first index to be considered.
+	 * @return lowest index in the set that is greater or equal than {@code from}, -1 if there is none.
+	 */
+	public int next(int from) {
+		if(from >= capacity)
+			return -1;
+		int w = from >>> 6;
+		long word = words[w] & (-1L << from);
+		while(true) {
+			if(word != 0)
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			if(++w == words.length)
+				return -1;
+			word = words[w];
+		}
+	}
+
+	/**
+	 * @param other set with the same capacity.
+	 * @param from first index to be considered.
+	 * @return lowest index in both sets that is greater or equal than {@code from}, -1 if there is none.
+	 */
+	public int nextCommon(BitIndexSet other, int from) {
+		if(from >= capacity)
+			return -1;
+		int w = from >>> 6;
+		long word = words[w] & other.words[w] & (-1L << from);
+		while(true) {
+			if(word != 0)
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			if(++w == words.length)
+				return -1;
+			word = words[w] & other.words[w];
+		}
+	}
+}
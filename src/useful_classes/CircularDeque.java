@@ -0,0 +1,49 @@
+package useful_classes;
+
+/**
+ * Double Ended Queue implemented over a growable circular array.
+ * Same behavior as {@link Deque} without creating a node per element.
+ * @author Angel G. Carrillo Laguna
+ *
+ * @param <E> Element type.
+ */
+public class CircularDeque<E> extends CircularQueue<E> implements DoubleEndedQueue<E> {
+
+	public CircularDeque() {
+		super();
+	}
+
+	/**
+	 * Constructor method.
+	 * @param capacity initial number of elements the deque can hold before growing.
+	 */
+	public CircularDeque(int capacity) {
+		super(capacity);
+	}
+
+	/**
+	 * Used to look at the last element in the Queue
+	 * @return the last element, null if empty.
+	 */
+	public E last() {
+		if(isEmpty())
+			return null;
+
+		return elements[(first + size - 1) & (elements.length - 1)];
+	}
+
+	/**
+	 * Same as last() but removes the element as well.
+	 * @return last element in the Queue
+	 */
+	public E removeLast() {
+		if(isEmpty())
+			return null;
+
+		int index = (first + size - 1) & (elements.length - 1);
+		E etr = elements[index];
+		elements[index] = null;
+		size--;
+		return etr;
+	}
+}
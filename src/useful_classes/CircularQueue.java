@@ -0,0 +1,95 @@
+package useful_classes;
+
+/**
+ * Queue implemented over a growable circular array. Unlike {@link SLLQueue} it does not create
+ * a node per element, the slots of the array are reused as the queue moves around it.
+ * @author Angel G. Carrillo Laguna
+ *
+ * @param <E> Element type.
+ */
+public class CircularQueue<E> implements Queue<E> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	protected E[] elements;//capacity is always a power of 2
+	protected int first;//index of the first element
+	protected int size;
+
+	public CircularQueue() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor method.
+	 * @param capacity initial number of elements the queue can hold before growing.
+	 */
+	@SuppressWarnings("unchecked")
+	public CircularQueue(int capacity) {
+		elements = (E[]) new Object[powerOfTwo(capacity)];
+		first = 0;
+		size = 0;
+	}
+
+	/**
+	 * @return smallest power of 2 that is greater or equal than n (at least 2).
+	 */
+	static int powerOfTwo(int n) {
+		if(n <= 2)
+			return 2;
+		return Integer.highestOneBit(n - 1) << 1;
+	}
+
+	public int size() {
+		return size;
+	}
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	public E first() {
+		if (isEmpty())
+			return null;
+
+		return elements[first];
+	}
+	public E dequeue() {
+		if (isEmpty())
+			return null;
+
+		E etr = elements[first];
+		elements[first] = null;
+		first = (first + 1) & (elements.length - 1);
+		size--;
+		return etr;
+	}
+
+	public void enqueue(E e) {
+		if (size == elements.length)
+			changeCapacity(2 * elements.length);
+		elements[(first + size) & (elements.length - 1)] = e;
+		size++;
+	}
+
+	/**
+	 * Moves the elements to a new array, the first element is placed at index 0.
+	 * @param capacity new capacity, a power of 2 not smaller than the size.
+	 */
+	@SuppressWarnings("unchecked")
+	protected void changeCapacity(int capacity) {
+		E[] temp = (E[]) new Object[capacity];
+		for(int i=0; i<size; i++)
+			temp[i] = elements[(first + i) & (elements.length - 1)];
+		elements = temp;
+		first = 0;
+	}
+	//////////////////////////////////////FOR TESTING PURPOSES////////////////////////////////////////////////////////////////
+	public String toString() {
+		if(isEmpty())
+			return null;
+
+		String s = "[";
+		for(int i=0; i<size - 1; i++)
+			s = s + elements[(first + i) & (elements.length - 1)] + ", ";
+		s = s + elements[(first + size - 1) & (elements.length - 1)] + "]";
+		return s;
+	}
+}
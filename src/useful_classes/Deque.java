@@ -7,7 +7,7 @@ package useful_classes;
  *
  * @param <E>
  */
-public class Deque<E> implements Queue<E> {
+public class Deque<E> implements DoubleEndedQueue<E> {
 
 
 	protected static class DNode<T>{
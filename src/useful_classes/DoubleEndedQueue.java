@@ -0,0 +1,23 @@
+package useful_classes;
+
+/**
+ * Queue that also gives access to the element that has been in it for the shortest time.
+ * @author Angel G. Carrillo Laguna
+ *
+ * @param <E> Element type.
+ */
+public interface DoubleEndedQueue<E> extends Queue<E> {
+	   /** Accessor Method.
+		Accesses the element that has been in the queue for the shortest
+		time among all its current elements.
+		Returns null if queue is empty.
+	   **/
+	   E last();
+
+	   /** Mutator Method.
+		Similar to the last() method, but this time, the queue is
+		altered since the accessed element is also removed from
+		the queue. Returns null if the queue is empty.
+	   **/
+	   E removeLast();
+}
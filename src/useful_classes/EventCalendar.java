@@ -0,0 +1,117 @@
+package useful_classes;
+
+/**
+ * Priority calendar of simulation events.
+ *
+ * Every event is packed into a single long (time, kind, payload) and kept in a binary min-heap,
+ * so events come out ordered by time and, among events of the same time, departures come out
+ * before arrivals. No object is allocated per event.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class EventCalendar {
+
+	public static final int DEPARTURE = 0;
+	public static final int ARRIVAL = 1;
+
+	private long[] heap;
+	private int size;
+
+	public EventCalendar() {
+		this(16);
+	}
+
+	/**
+	 * Constructor method.
+	 * @param capacity initial number of events the calendar can hold before growing.
+	 */
+	public EventCalendar(int capacity) {
+		heap = new long[Math.max(capacity, 2)];
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds a new event to the calendar.
+	 * @param time non negative time unit in which the event happens.
+	 * @param kind {@code DEPARTURE} or {@code ARRIVAL}.
+	 * @param payload non negative value carried by the event (e.g. the index of a server).
+	 */
+	public void schedule(int time, int kind, int payload) {
+		if(size == heap.length) {
+			long[] bigger = new long[heap.length * 2];
+			System.arraycopy(heap, 0, bigger, 0, size);
+			heap = bigger;
+		}
+		long event = ((long) time << 32) | ((long) kind << 31) | payload;
+		int i = size++;
+		while(i > 0) {//sift up
+			int parent = (i - 1) >>> 1;
+			if(heap[parent] <= event)
+				break;
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = event;
+	}
+
+	/**
+	 * @return time of the earliest event, -1 if the calendar is empty.
+	 */
+	public int nextTime() {
+		if(isEmpty())
+			return -1;
+
+		return (int) (heap[0] >>> 32);
+	}
+
+	/**
+	 * @return kind of the earliest event, -1 if the calendar is empty.
+	 */
+	public int nextKind() {
+		if(isEmpty())
+			return -1;
+
+		return (int) ((heap[0] >>> 31) & 1);
+	}
+
+	/**
+	 * @return payload of the earliest event, -1 if the calendar is empty.
+	 */
+	public int nextPayload() {
+		if(isEmpty())
+			return -1;
+
+		return (int) (heap[0] & 0x7FFFFFFFL);
+	}
+
+	/**
+	 * Removes the earliest event from the calendar.
+	 */
+	public void removeNext() {
+		if(isEmpty())
+			return;
+
+		long event = heap[--size];
+		int i = 0;
+		int half = size >>> 1;
+		while(i < half) {//sift down
+			int child = 2 * i + 1;
+			if(child + 1 < size && heap[child + 1] < heap[child])
+				child++;
+			if(event <= heap[child])
+				break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = event;
+	}
+}
@@ -0,0 +1,52 @@
+package useful_classes;
+
+/**
+ * Fenwick tree (binary indexed tree) of counts over the positions from 0 to a fixed size.
+ * Both adding to a position and summing the counts below a position take O(log n).
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class FenwickTree {
+
+	private int[] tree;//from 1 to size
+	private int total;//sum of every count
+
+	/**
+	 * Constructor method.
+	 * @param size number of positions.
+	 */
+	public FenwickTree(int size) {
+		tree = new int[size + 1];
+		total = 0;
+	}
+
+	/**
+	 * Adds a value to the count of a position.
+	 * @param position from 0 to size - 1.
+	 * @param delta value to be added.
+	 */
+	public void add(int position, int delta) {
+		total += delta;
+		for(int i=position + 1; i<tree.length; i+=i & -i)
+			tree[i] += delta;
+	}
+
+	/**
+	 * @param position upper bound, not included.
+	 * @return sum of the counts of the positions smaller than the given one.
+	 */
+	public int countBelow(int position) {
+		int sum = 0;
+		for(int i=Math.min(position, tree.length - 1); i>0; i-=i & -i)
+			sum += tree[i];
+		return sum;
+	}
+
+	/**
+	 * @return sum of the counts of every position.
+	 */
+	public int getTotal() {
+		return total;
+	}
+}
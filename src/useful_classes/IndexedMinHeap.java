@@ -0,0 +1,127 @@
+package useful_classes;
+
+/**
+ * Binary min-heap of int items (e.g. the indexes of lines) with a long key each, in which any item
+ * can be removed in O(log n) because the heap keeps the position of every item.
+ *
+ * The position array may be shared by several heaps as long as an item is never in two of them
+ * at the same time, so an item can be moved from one heap to another without extra memory.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class IndexedMinHeap {
+
+	private int[] items;
+	private long[] keys;
+	private int size;
+	private int[] position;//slot of every item in the heap that holds it, -1 if none
+
+	/**
+	 * Constructor method.
+	 * @param position array with -1 for every item that is not in a heap, shared by the heaps of the same items.
+	 */
+	public IndexedMinHeap(int[] position) {
+		this.items = new int[4];
+		this.keys = new long[4];
+		this.size = 0;
+		this.position = position;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean contains(int item) {
+		int slot = position[item];
+		return slot >= 0 && slot < size && items[slot] == item;
+	}
+
+	/**
+	 * @return item with the minimum key, -1 if the heap is empty.
+	 */
+	public int peek() {
+		if(isEmpty())
+			return -1;
+		return items[0];
+	}
+
+	/**
+	 * @return the minimum key, Long.MAX_VALUE if the heap is empty.
+	 */
+	public long peekKey() {
+		if(isEmpty())
+			return Long.MAX_VALUE;
+		return keys[0];
+	}
+
+	/**
+	 * Adds an item that is not in any heap.
+	 * @param item to be added.
+	 * @param key of the item.
+	 */
+	public void add(int item, long key) {
+		if(size == items.length) {
+			int[] biggerItems = new int[2 * size];
+			long[] biggerKeys = new long[2 * size];
+			System.arraycopy(items, 0, biggerItems, 0, size);
+			System.arraycopy(keys, 0, biggerKeys, 0, size);
+			items = biggerItems;
+			keys = biggerKeys;
+		}
+		siftUp(size++, item, key);
+	}
+
+	/**
+	 * Removes an item of this heap.
+	 * @param item to be removed.
+	 */
+	public void remove(int item) {
+		int slot = position[item];
+		position[item] = -1;
+		size--;
+		if(slot == size)
+			return;
+		int lastItem = items[size];
+		long lastKey = keys[size];
+		if(slot > 0 && lastKey < keys[(slot - 1) >>> 1])
+			siftUp(slot, lastItem, lastKey);
+		else
+			siftDown(slot, lastItem, lastKey);
+	}
+
+	private void place(int slot, int item, long key) {
+		items[slot] = item;
+		keys[slot] = key;
+		position[item] = slot;
+	}
+
+	private void siftUp(int slot, int item, long key) {
+		while(slot > 0) {
+			int parent = (slot - 1) >>> 1;
+			if(keys[parent] <= key)
+				break;
+			place(slot, items[parent], keys[parent]);
+			slot = parent;
+		}
+		place(slot, item, key);
+	}
+
+	private void siftDown(int slot, int item, long key) {
+		int half = size >>> 1;
+		while(slot < half) {
+			int child = 2 * slot + 1;
+			if(child + 1 < size && keys[child + 1] < keys[child])
+				child++;
+			if(key <= keys[child])
+				break;
+			place(slot, items[child], keys[child]);
+			slot = child;
+		}
+		place(slot, item, key);
+	}
+}
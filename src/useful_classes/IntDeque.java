@@ -0,0 +1,138 @@
+package useful_classes;
+
+/**
+ * Double Ended Queue of non negative int values (e.g. the positions of clients in a trace)
+ * implemented over a growable circular int array, so no object is created per element.
+ *
+ * The primitive methods return -1 when the queue is empty. The methods of {@link DoubleEndedQueue}
+ * are also available, so it can be used wherever a {@link Queue} of {@link Integer} is expected.
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class IntDeque implements DoubleEndedQueue<Integer> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] elements;//capacity is always a power of 2
+	private int first;//index of the first element
+	private int size;
+
+	public IntDeque() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor method.
+	 * @param capacity initial number of elements the deque can hold before growing.
+	 */
+	public IntDeque(int capacity) {
+		elements = new int[CircularQueue.powerOfTwo(capacity)];
+		first = 0;
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the first element, -1 if empty.
+	 */
+	public int firstInt() {
+		if (isEmpty())
+			return -1;
+
+		return elements[first];
+	}
+
+	/**
+	 * Same as firstInt() but removes the element as well.
+	 * @return the first element, -1 if empty.
+	 */
+	public int dequeueInt() {
+		if (isEmpty())
+			return -1;
+
+		int etr = elements[first];
+		first = (first + 1) & (elements.length - 1);
+		size--;
+		return etr;
+	}
+
+	/**
+	 * Adds a new element at the end of the queue.
+	 * @param e non negative value.
+	 */
+	public void enqueue(int e) {
+		if (size == elements.length) {
+			int[] temp = new int[2 * elements.length];
+			for(int i=0; i<size; i++)
+				temp[i] = elements[(first + i) & (elements.length - 1)];
+			elements = temp;
+			first = 0;
+		}
+		elements[(first + size) & (elements.length - 1)] = e;
+		size++;
+	}
+
+	/**
+	 * Used to look at the last element in the Queue
+	 * @return the last element, -1 if empty.
+	 */
+	public int lastInt() {
+		if(isEmpty())
+			return -1;
+
+		return elements[(first + size - 1) & (elements.length - 1)];
+	}
+
+	/**
+	 * Same as lastInt() but removes the element as well.
+	 * @return last element in the Queue, -1 if empty.
+	 */
+	public int removeLastInt() {
+		if(isEmpty())
+			return -1;
+
+		size--;
+		return elements[(first + size) & (elements.length - 1)];
+	}
+
+	public Integer first() {
+		if (isEmpty())
+			return null;
+		return firstInt();
+	}
+	public Integer dequeue() {
+		if (isEmpty())
+			return null;
+		return dequeueInt();
+	}
+	public void enqueue(Integer e) {
+		enqueue(e.intValue());
+	}
+	public Integer last() {
+		if (isEmpty())
+			return null;
+		return lastInt();
+	}
+	public Integer removeLast() {
+		if (isEmpty())
+			return null;
+		return removeLastInt();
+	}
+	//////////////////////////////////////FOR TESTING PURPOSES////////////////////////////////////////////////////////////////
+	public String toString() {
+		if(isEmpty())
+			return null;
+
+		String s = "[";
+		for(int i=0; i<size - 1; i++)
+			s = s + elements[(first + i) & (elements.length - 1)] + ", ";
+		s = s + lastInt() + "]";
+		return s;
+	}
+}
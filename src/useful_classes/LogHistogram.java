@@ -0,0 +1,106 @@
+package useful_classes;
+
+/**
+ * Histogram of non negative values with logarithmic buckets, in the style of HdrHistogram.
+ *
+ * Values below 256 have a bucket each. Every power of 2 above them is split in 128 buckets, so the value
+ * given for a percentile is never more than 1/128 (less than 1%) above the real one. The number of buckets
+ * is fixed, so the memory does not depend on how many values are recorded. The maximum is kept exactly.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class LogHistogram {
+
+	private static final int SUB_BITS = 7;
+	private static final int SUB = 1 << SUB_BITS;//buckets in every power of 2
+	private static final int BUCKETS = 2 * SUB + (62 - SUB_BITS) * SUB;//enough for any long
+
+	private long[] counts;
+	private long total;
+	private long max;
+
+	public LogHistogram() {
+		counts = new long[BUCKETS];
+		total = 0;
+		max = 0;
+	}
+
+	/**
+	 * @param value not negative.
+	 * @return bucket of the value.
+	 */
+	private static int index(long value) {
+		if(value < 2 * SUB)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;//value >>> shift is in [SUB, 2 * SUB)
+		return 2 * SUB + (shift - 1) * SUB + (int) ((value >>> shift) - SUB);
+	}
+
+	/**
+	 * @param index of a bucket.
+	 * @return greatest value of the bucket.
+	 */
+	private static long highest(int index) {
+		if(index < 2 * SUB)
+			return index;
+		int shift = (index - 2 * SUB) / SUB + 1;
+		long mantissa = (index - 2 * SUB) % SUB + SUB;
+		return ((mantissa + 1) << shift) - 1;
+	}
+
+	/**
+	 * Records a value.
+	 * @param value not negative.
+	 */
+	public void record(long value) {
+		if(value < 0)
+			throw new IllegalArgumentException("Value must not be negative.");
+		counts[index(value)]++;
+		total++;
+		if(value > max)
+			max = value;
+	}
+
+	/**
+	 * Adds every value of another histogram to this one.
+	 * @param other {@link LogHistogram} to be added.
+	 */
+	public void add(LogHistogram other) {
+		for(int i=0; i<BUCKETS; i++)
+			counts[i] += other.counts[i];
+		total += other.total;
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * @return number of values recorded.
+	 */
+	public long getCount() {
+		return total;
+	}
+
+	/**
+	 * @return greatest value recorded, 0 if there is none.
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * @param percentile from 0 to 100.
+	 * @return value below or equal to which the given percentage of the values are, 0 if there are no values.
+	 */
+	public long getPercentile(double percentile) {
+		if(total == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for(int i=0; i<BUCKETS; i++) {
+			seen += counts[i];
+			if(seen >= rank)
+				return Math.min(highest(i), max);
+		}
+		return max;
+	}
+}
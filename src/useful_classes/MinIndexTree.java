@@ -0,0 +1,108 @@
+package useful_classes;
+
+/**
+ * Tournament tree over a fixed number of indexed values.
+ *
+ * Every internal node keeps the index that wins among its two children: the one with the minimum
+ * value or, in case of a tie, the one with the minimum index. Changing a value replays the matches
+ * on the path to the root in O(log n), and the overall winner is read from the root in O(1).
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class MinIndexTree {
+
+	private long[] values;
+	private int[] winner;//index that wins at each node, leaves start at position leaves
+	private int leaves;//power of 2 not smaller than the number of values
+
+	/**
+	 * Constructor method. Every value starts as 0.
+	 * @param size number of indexed values, from 0 to {@code size - 1}.
+	 */
+	public MinIndexTree(int size) {
+		this(size, 0);
+	}
+
+	/**
+	 * Constructor method.
+	 * @param size number of indexed values, from 0 to {@code size - 1}.
+	 * @param initial value of every index.
+	 */
+	public MinIndexTree(int size, long initial) {
+		leaves = 1;
+		while(leaves < size)
+			leaves <<= 1;
+		values = new long[leaves];
+		for(int i=0; i<size; i++)
+			values[i] = initial;
+		for(int i=size; i<leaves; i++)
+			values[i] = Long.MAX_VALUE;//padding never wins over a real index
+		winner = new int[2 * leaves];
+		for(int i=0; i<leaves; i++)
+			winner[leaves + i] = i;
+		for(int node=leaves - 1; node>=1; node--)
+			winner[node] = play(winner[2 * node], winner[2 * node + 1]);
+	}
+
+	/**
+	 * @return winner between two indexes, the left one being the lower index.
+	 */
+	private int play(int left, int right) {
+		if(values[right] < values[left])
+			return right;
+		return left;
+	}
+
+	public long get(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Changes the value of an index.
+	 * @param index of the value.
+	 * @param value new value.
+	 */
+	public void update(int index, long value) {
+		values[index] = value;
+		for(int node=(leaves + index) >>> 1; node>=1; node >>>= 1)
+			winner[node] = play(winner[2 * node], winner[2 * node + 1]);
+	}
+
+	/**
+	 * Finds the first index, from a given position, whose value does not exceed a bound.
+	 * Only the subtrees whose winner is within the bound are visited.
+	 * @param from first index to be considered.
+	 * @param bound maximum value accepted.
+	 * @return minimum index greater or equal than {@code from} with a value not greater than {@code bound}, -1 if there is none.
+	 */
+	public int firstAtMost(int from, long bound) {
+		return firstAtMost(1, 0, leaves - 1, from, bound);
+	}
+
+	private int firstAtMost(int node, int lo, int hi, int from, long bound) {
+		if(hi < from || values[winner[node]] > bound)
+			return -1;
+		if(lo == hi)
+			return lo;
+		int mid = (lo + hi) >>> 1;
+		int index = firstAtMost(2 * node, lo, mid, from, bound);
+		if(index != -1)
+			return index;
+		return firstAtMost(2 * node + 1, mid + 1, hi, from, bound);
+	}
+
+	/**
+	 * @return index of the minimum value, the minimum index among ties.
+	 */
+	public int minIndex() {
+		return winner[1];
+	}
+
+	/**
+	 * @return the minimum value.
+	 */
+	public long minValue() {
+		return values[winner[1]];
+	}
+}
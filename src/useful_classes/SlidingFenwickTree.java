@@ -0,0 +1,100 @@
+package useful_classes;
+
+/**
+ * Fenwick tree (binary indexed tree) of counts over a sliding window of positions.
+ *
+ * Only the positions from the first one with a count different than 0 up to the greatest position
+ * added are kept, in a circular array that doubles its capacity when the window does not fit.
+ * The start of the window moves forward by itself as the counts at its beginning become 0, so
+ * the memory depends on the width of the window and not on the greatest position.
+ *
+ * @author Angel G. Carrillo Laguna
+ *
+ */
+public class SlidingFenwickTree {
+
+	private int[] tree;//Fenwick tree over the slots of the circular array, from 1 to capacity
+	private int[] count;//count of every slot
+	private int total;//sum of every count
+	private int base;//first position of the window
+	private int end;//one more than the greatest position of the window
+
+	public SlidingFenwickTree() {
+		tree = new int[17];
+		count = new int[16];
+		total = 0;
+		base = 0;
+		end = 0;
+	}
+
+	/**
+	 * @return first position kept, every position before it has a count of 0.
+	 */
+	public int getBase() {
+		return base;
+	}
+
+	/**
+	 * Adds a value to the count of a position.
+	 * @param position not smaller than {@link #getBase()}.
+	 * @param delta value to be added.
+	 */
+	public void add(int position, int delta) {
+		if(position < base)
+			throw new IllegalArgumentException("Position " + position + " is before the window.");
+		if(base == end)//the window is empty, it starts again at the given position
+			base = end = position;
+		if(position - base >= count.length)
+			changeCapacity(CircularQueue.powerOfTwo(position - base + 1));
+		if(position >= end)
+			end = position + 1;
+		int slot = position & (count.length - 1);
+		count[slot] += delta;
+		total += delta;
+		for(int i=slot + 1; i<tree.length; i+=i & -i)
+			tree[i] += delta;
+		while(base < end && count[base & (count.length - 1)] == 0)
+			base++;
+	}
+
+	/**
+	 * @param slot of the circular array.
+	 * @return sum of the counts of the slots before the given one.
+	 */
+	private int prefix(int slot) {
+		int sum = 0;
+		for(int i=slot; i>0; i-=i & -i)
+			sum += tree[i];
+		return sum;
+	}
+
+	/**
+	 * @param position upper bound, not included.
+	 * @return sum of the counts of the positions smaller than the given one.
+	 */
+	public int countBelow(int position) {
+		if(position <= base)
+			return 0;
+		if(position >= end)
+			return total;
+		int mask = count.length - 1;
+		int from = base & mask, to = position & mask;
+		if(from < to)
+			return prefix(to) - prefix(from);
+		return total - prefix(from) + prefix(to);//the window goes around the end of the array
+	}
+
+	private void changeCapacity(int capacity) {
+		int[] newCount = new int[capacity];
+		for(int position=base; position<end; position++)
+			newCount[position & (capacity - 1)] = count[position & (count.length - 1)];
+		count = newCount;
+		tree = new int[capacity + 1];
+		for(int i=1; i<=capacity; i++) {//linear construction: every node gives its sum to its parent
+			tree[i] += count[i - 1];
+			int parent = i + (i & -i);
+			if(parent <= capacity)
+				tree[parent] += tree[i];
+		}
+	}
+}